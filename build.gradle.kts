@@ -2,6 +2,7 @@ plugins {
     java
     `java-library`
     id("com.gradleup.shadow") version "8.3.5"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "dev.user"
@@ -42,6 +43,13 @@ tasks.withType<JavaCompile> {
     targetCompatibility = "21"
 }
 
+// JMH 基准测试（src/jmh/java），运行: ./gradlew jmh
+jmh {
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+}
+
 tasks.shadowJar {
     archiveClassifier.set("")
     archiveFileName.set("SimpleTitle-${version}.jar")
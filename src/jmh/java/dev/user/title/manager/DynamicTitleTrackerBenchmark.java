@@ -0,0 +1,124 @@
+package dev.user.title.manager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DynamicTitleTracker 基准：玩家槽位 vs 旧版 "uuid:titleId" 字符串键
+ * 每次调用遍历全部在线玩家，对应一次动态称号切换 / 一轮占位符读取
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DynamicTitleTrackerBenchmark {
+
+    private static final int FRAMES = 10;
+
+    @Param({"500", "5000"})
+    public int players;
+
+    private UUID[] uuids;
+    private String[] titleIds;
+    private DynamicTitleTracker slotTracker;
+    private StringKeyTracker stringKeyTracker;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        uuids = new UUID[players];
+        titleIds = new String[players];
+        slotTracker = new DynamicTitleTracker();
+        stringKeyTracker = new StringKeyTracker();
+        for (int i = 0; i < players; i++) {
+            uuids[i] = UUID.randomUUID();
+            titleIds[i] = "rainbow_" + (i % 16);
+            slotTracker.nextIndex(uuids[i], titleIds[i], FRAMES);
+            stringKeyTracker.nextIndex(uuids[i], titleIds[i], FRAMES);
+        }
+    }
+
+    @Benchmark
+    public void slotRead(Blackhole bh) {
+        for (int i = 0; i < players; i++) {
+            bh.consume(slotTracker.getCurrentIndex(uuids[i], titleIds[i]));
+        }
+    }
+
+    @Benchmark
+    public void stringKeyRead(Blackhole bh) {
+        for (int i = 0; i < players; i++) {
+            bh.consume(stringKeyTracker.getCurrentIndex(uuids[i], titleIds[i]));
+        }
+    }
+
+    @Benchmark
+    public void slotAdvance(Blackhole bh) {
+        for (int i = 0; i < players; i++) {
+            bh.consume(slotTracker.nextIndex(uuids[i], titleIds[i], FRAMES));
+        }
+    }
+
+    @Benchmark
+    public void stringKeyAdvance(Blackhole bh) {
+        for (int i = 0; i < players; i++) {
+            bh.consume(stringKeyTracker.nextIndex(uuids[i], titleIds[i], FRAMES));
+        }
+    }
+
+    /**
+     * 单个玩家退出（移除后立即放回，保持玩家数不变）
+     */
+    @Benchmark
+    public void slotRemovePlayer() {
+        UUID uuid = uuids[players / 2];
+        slotTracker.removePlayer(uuid);
+        slotTracker.nextIndex(uuid, titleIds[players / 2], FRAMES);
+    }
+
+    @Benchmark
+    public void stringKeyRemovePlayer() {
+        UUID uuid = uuids[players / 2];
+        stringKeyTracker.removePlayer(uuid);
+        stringKeyTracker.nextIndex(uuid, titleIds[players / 2], FRAMES);
+    }
+
+    /**
+     * 旧版实现：以 "uuid:titleId" 拼接字符串为键，移除玩家时扫描全表
+     */
+    static final class StringKeyTracker {
+        private final Map<String, Integer> currentIndices = new ConcurrentHashMap<>();
+
+        private String getKey(UUID playerUuid, String titleId) {
+            return playerUuid.toString() + ":" + titleId;
+        }
+
+        int getCurrentIndex(UUID playerUuid, String titleId) {
+            return currentIndices.getOrDefault(getKey(playerUuid, titleId), 0);
+        }
+
+        int nextIndex(UUID playerUuid, String titleId, int maxSize) {
+            if (maxSize <= 1) return 0;
+            String key = getKey(playerUuid, titleId);
+            int next = (currentIndices.getOrDefault(key, 0) + 1) % maxSize;
+            currentIndices.put(key, next);
+            return next;
+        }
+
+        void removePlayer(UUID playerUuid) {
+            String prefix = playerUuid.toString() + ":";
+            currentIndices.entrySet().removeIf(entry -> entry.getKey().startsWith(prefix));
+        }
+    }
+}
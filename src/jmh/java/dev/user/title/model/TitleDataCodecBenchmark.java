@@ -0,0 +1,89 @@
+package dev.user.title.model;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TitleDataCodec 基准：流式编解码 vs 旧版 Gson 反射 + 逐字段补默认值
+ * 样本为一个静态预设称号和一个 10 帧动态自定义称号
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TitleDataCodecBenchmark {
+
+    private static final Gson GSON = new GsonBuilder()
+            .disableHtmlEscaping()
+            .create();
+
+    @Param({"static", "dynamic10"})
+    public String shape;
+
+    private TitleData data;
+    private String json;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        if ("static".equals(shape)) {
+            data = TitleData.createPreset("&6&l传说", "『", "』", "&e", "");
+            data.setDisplayName("传说");
+            data.setPriceMoney(50000);
+            data.setPermission("simpletitle.title.legend");
+            data.setSlot(13);
+            data.setCategory("rare");
+        } else {
+            List<String> frames = new ArrayList<>();
+            String[] colors = {"&c", "&6", "&e", "&a", "&b", "&9", "&d", "&5", "&f", "&7"};
+            for (String color : colors) {
+                frames.add(color + "彩虹称号");
+            }
+            data = TitleData.createCustom(frames.get(0), "[", "]", "", "");
+            data.setContents(frames);
+            data.setDisplayName("rainbow");
+        }
+        json = TitleDataCodec.encode(data);
+    }
+
+    @Benchmark
+    public TitleData codecDecode() {
+        return TitleDataCodec.decode(json);
+    }
+
+    @Benchmark
+    public TitleData gsonDecode() {
+        TitleData decoded = GSON.fromJson(json, TitleData.class);
+        // 旧版 fromJson 的默认值处理
+        if (decoded.getContents() == null) decoded.setContents(new ArrayList<>());
+        if (decoded.getBracketLeft() == null) decoded.setBracketLeft("[");
+        if (decoded.getBracketRight() == null) decoded.setBracketRight("]");
+        if (decoded.getPrefix() == null) decoded.setPrefix("");
+        if (decoded.getSuffix() == null) decoded.setSuffix("");
+        if (decoded.getType() == null) decoded.setType(TitleType.CUSTOM);
+        if (decoded.getDisplayNameOrNull() == null) decoded.setDisplayName("");
+        if (decoded.getCategory() == null) decoded.setCategory("default");
+        return decoded;
+    }
+
+    @Benchmark
+    public String codecEncode() {
+        return TitleDataCodec.encode(data);
+    }
+
+    @Benchmark
+    public String gsonEncode() {
+        return GSON.toJson(data);
+    }
+}
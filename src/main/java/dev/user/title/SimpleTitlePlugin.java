@@ -15,8 +15,12 @@ import dev.user.title.manager.CustomTitleSessionManager;
 import dev.user.title.manager.DynamicTitleManager;
 import dev.user.title.manager.BracketManager;
 import dev.user.title.manager.BracketCacheManager;
+import dev.user.title.manager.PlayerDataLoader;
+import dev.user.title.manager.TitleWriteBuffer;
+import dev.user.title.util.CallbackDispatcher;
 import dev.user.title.util.CsvImporter;
 import dev.user.title.placeholder.TitleExpansion;
+import dev.user.title.placeholder.TitleRenderCache;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
@@ -31,6 +35,9 @@ public class SimpleTitlePlugin extends JavaPlugin {
     // 配置管理
     private ConfigManager configManager;
 
+    // 异步回调分发
+    private CallbackDispatcher callbackDispatcher;
+
     // 数据库
     private DatabaseManager databaseManager;
     private DatabaseQueue databaseQueue;
@@ -47,10 +54,13 @@ public class SimpleTitlePlugin extends JavaPlugin {
     private DynamicTitleManager dynamicTitleManager;
     private BracketCacheManager bracketCacheManager;
     private BracketManager bracketManager;
+    private PlayerDataLoader playerDataLoader;
+    private TitleWriteBuffer titleWriteBuffer;
     private CsvImporter csvImporter;
 
     // PAPI 扩展
     private TitleExpansion titleExpansion;
+    private TitleRenderCache titleRenderCache;
 
     @Override
     public void onEnable() {
@@ -82,12 +92,19 @@ public class SimpleTitlePlugin extends JavaPlugin {
             getLogger().info("使用 MySQL 数据库，支持跨服部署");
         }
 
+        // 初始化异步回调分发器（数据库、经济队列的回调都经由它回到服务器线程）
+        this.callbackDispatcher = new CallbackDispatcher(this);
+        callbackDispatcher.start();
+
         // 初始化数据库队列
         this.databaseQueue = new DatabaseQueue(this);
 
         // 初始化数据访问层
         this.titleRepository = new TitleRepository(this);
 
+        // 后台执行数据库迁移的数据回填（依次进行，服务器运行期间完成）
+        databaseManager.getSchemaMigrator().startBackground(databaseQueue);
+
         // 初始化经济系统（软依赖）
         this.economyManager = new EconomyManager(this);
         economyManager.init();
@@ -96,12 +113,20 @@ public class SimpleTitlePlugin extends JavaPlugin {
         this.playerPointsManager = new PlayerPointsManager(this);
         playerPointsManager.init();
 
+        // 初始化称号渲染缓存
+        this.titleRenderCache = new TitleRenderCache(this);
+
         // 初始化缓存管理器
         this.titleCacheManager = new TitleCacheManager(this);
+        titleCacheManager.start();
 
         // 初始化边框缓存管理器
         this.bracketCacheManager = new BracketCacheManager(this);
 
+        // 初始化玩家数据加载器
+        this.playerDataLoader = new PlayerDataLoader(this);
+        playerDataLoader.start();
+
         // 初始化边框管理器
         this.bracketManager = new BracketManager(this);
         bracketManager.load();
@@ -109,6 +134,10 @@ public class SimpleTitlePlugin extends JavaPlugin {
         // 初始化自定义称号会话管理器
         this.customTitleSessionManager = new CustomTitleSessionManager(this);
 
+        // 初始化称号延迟写入缓冲
+        this.titleWriteBuffer = new TitleWriteBuffer(this);
+        titleWriteBuffer.start();
+
         // 初始化业务逻辑管理器
         this.titleManager = new TitleManager(this);
 
@@ -145,7 +174,7 @@ public class SimpleTitlePlugin extends JavaPlugin {
 
         // 加载在线玩家的称号数据
         for (Player player : getServer().getOnlinePlayers()) {
-            titleManager.onPlayerJoin(player.getUniqueId());
+            playerDataLoader.onPlayerJoin(player.getUniqueId());
         }
 
         getLogger().info("SimpleTitle 插件已启用！");
@@ -173,11 +202,29 @@ public class SimpleTitlePlugin extends JavaPlugin {
             economyManager.shutdown();
         }
 
+        // 停止离线缓存与最近退出玩家的清理
+        if (titleCacheManager != null) {
+            titleCacheManager.shutdown();
+        }
+        if (playerDataLoader != null) {
+            playerDataLoader.shutdown();
+        }
+
+        // 写入未写入的称号修改（必须在数据库队列关闭前）
+        if (titleWriteBuffer != null) {
+            titleWriteBuffer.shutdown();
+        }
+
         // 关闭数据库队列
         if (databaseQueue != null) {
             databaseQueue.shutdown();
         }
 
+        // 执行剩余的异步回调
+        if (callbackDispatcher != null) {
+            callbackDispatcher.shutdown();
+        }
+
         // 关闭数据库连接池
         if (databaseManager != null) {
             databaseManager.close();
@@ -187,6 +234,9 @@ public class SimpleTitlePlugin extends JavaPlugin {
         if (titleCacheManager != null) {
             titleCacheManager.clearAll();
         }
+        if (playerDataLoader != null) {
+            playerDataLoader.clear();
+        }
 
         getLogger().info("SimpleTitle 插件已禁用！");
     }
@@ -202,6 +252,19 @@ public class SimpleTitlePlugin extends JavaPlugin {
      */
     public void reload() {
         configManager.load();
+        // 配置变化（padding 等）需要重新渲染称号
+        if (titleRenderCache != null) {
+            titleRenderCache.clear();
+        }
+        // 应用新的离线缓存容量与存活时间
+        if (titleCacheManager != null) {
+            titleCacheManager.reloadConfig();
+        }
+        // 重启延迟写入缓冲以应用新的窗口配置（会先写入未写入的修改）
+        if (titleWriteBuffer != null) {
+            titleWriteBuffer.shutdown();
+            titleWriteBuffer.start();
+        }
         // 重启 DynamicTitleManager 以应用新的 switch-interval
         if (dynamicTitleManager != null) {
             dynamicTitleManager.shutdown();
@@ -220,6 +283,10 @@ public class SimpleTitlePlugin extends JavaPlugin {
         return configManager;
     }
 
+    public CallbackDispatcher getCallbackDispatcher() {
+        return callbackDispatcher;
+    }
+
     public DatabaseManager getDatabaseManager() {
         return databaseManager;
     }
@@ -264,7 +331,19 @@ public class SimpleTitlePlugin extends JavaPlugin {
         return bracketManager;
     }
 
+    public PlayerDataLoader getPlayerDataLoader() {
+        return playerDataLoader;
+    }
+
+    public TitleWriteBuffer getTitleWriteBuffer() {
+        return titleWriteBuffer;
+    }
+
     public CsvImporter getCsvImporter() {
         return csvImporter;
     }
+
+    public TitleRenderCache getTitleRenderCache() {
+        return titleRenderCache;
+    }
 }
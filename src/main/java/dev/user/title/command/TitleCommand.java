@@ -2,11 +2,14 @@ package dev.user.title.command;
 
 import dev.user.title.SimpleTitlePlugin;
 import dev.user.title.config.ConfigManager;
+import dev.user.title.database.DatabaseQueue;
+import dev.user.title.database.SchemaMigrator;
 import dev.user.title.gui.BracketShopGUI;
 import dev.user.title.gui.TitleMainGUI;
 import dev.user.title.gui.TitleShopGUI;
 import dev.user.title.manager.BracketManager;
 import dev.user.title.manager.CustomTitleSessionManager;
+import dev.user.title.manager.TitleCacheManager;
 import dev.user.title.manager.TitleManager;
 import dev.user.title.model.BracketData;
 import dev.user.title.model.TitleData;
@@ -21,6 +24,7 @@ import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -78,6 +82,8 @@ public class TitleCommand implements CommandExecutor, TabCompleter {
                 return handleReload(sender);
             case "give":
                 return handleGive(sender, args);
+            case "stats":
+                return handleStats(sender);
             case "help":
                 sendHelp(sender);
                 return true;
@@ -107,20 +113,23 @@ public class TitleCommand implements CommandExecutor, TabCompleter {
         String titleId = args[1];
         UUID playerUuid = player.getUniqueId();
 
-        // 检查是否拥有该称号
-        if (!titleManager.hasTitle(playerUuid, titleId)) {
-            MessageUtil.send(player, configManager.getMessage("title-not-found"));
-            return true;
-        }
-
-        titleManager.setCurrentTitle(playerUuid, titleId, success -> {
-            if (success) {
-                TitleData titleData = titleManager.getCurrentTitle(playerUuid);
-                String formattedTitle = titleData != null ? titleData.getFormatted() : titleId;
-                MessageUtil.send(player, configManager.getMessage("title-set", "title", formattedTitle));
-            } else {
-                MessageUtil.send(player, "&c设置称号失败！");
+        // 等待称号数据加载完成后检查是否拥有该称号
+        titleManager.whenLoaded(player, state -> {
+            TitleData owned = state != null ? state.getTitles().get(titleId) : null;
+            if (owned == null || !owned.isUsable()) {
+                MessageUtil.send(player, configManager.getMessage("title-not-found"));
+                return;
             }
+
+            titleManager.setCurrentTitle(player, titleId, success -> {
+                if (success) {
+                    TitleData titleData = titleManager.getCurrentTitle(playerUuid);
+                    String formattedTitle = titleData != null ? titleData.getFormatted() : titleId;
+                    MessageUtil.send(player, configManager.getMessage("title-set", "title", formattedTitle));
+                } else {
+                    MessageUtil.send(player, "&c设置称号失败！");
+                }
+            });
         });
 
         return true;
@@ -161,32 +170,42 @@ public class TitleCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        UUID playerUuid = player.getUniqueId();
-        Map<String, TitleData> titles = titleManager.getPlayerTitles(playerUuid);
-        String currentTitleId = plugin.getTitleCacheManager().getCurrentTitleId(playerUuid);
+        // 等待称号数据加载完成，避免加载期间显示为没有称号
+        titleManager.whenLoaded(player, state -> {
+            // 跳过无法解码的称号
+            Map<String, TitleData> titles = new LinkedHashMap<>();
+            if (state != null) {
+                state.getTitles().forEach((id, data) -> {
+                    if (data.isUsable()) {
+                        titles.put(id, data);
+                    }
+                });
+            }
+            String currentTitleId = state != null ? state.getCurrentTitleId() : null;
 
-        if (titles.isEmpty()) {
-            MessageUtil.send(player, configManager.getMessage("no-titles"));
-            return true;
-        }
+            if (titles.isEmpty()) {
+                MessageUtil.send(player, configManager.getMessage("no-titles"));
+                return;
+            }
 
-        MessageUtil.send(player, configManager.getMessage("list-header", "count", String.valueOf(titles.size())));
+            MessageUtil.send(player, configManager.getMessage("list-header", "count", String.valueOf(titles.size())));
 
-        for (Map.Entry<String, TitleData> entry : titles.entrySet()) {
-            String titleId = entry.getKey();
-            TitleData titleData = entry.getValue();
-            String formatted = titleData.getFormatted();
+            for (Map.Entry<String, TitleData> entry : titles.entrySet()) {
+                String titleId = entry.getKey();
+                TitleData titleData = entry.getValue();
+                String formatted = titleData.getFormatted();
 
-            if (titleId.equals(currentTitleId)) {
-                MessageUtil.send(player, configManager.getMessage("list-item-current",
-                        "title", formatted, "id", titleId));
-            } else {
-                MessageUtil.send(player, configManager.getMessage("list-item",
-                        "title", formatted, "id", titleId));
+                if (titleId.equals(currentTitleId)) {
+                    MessageUtil.send(player, configManager.getMessage("list-item-current",
+                            "title", formatted, "id", titleId));
+                } else {
+                    MessageUtil.send(player, configManager.getMessage("list-item",
+                            "title", formatted, "id", titleId));
+                }
             }
-        }
 
-        MessageUtil.send(player, configManager.getMessage("list-footer"));
+            MessageUtil.send(player, configManager.getMessage("list-footer"));
+        });
 
         return true;
     }
@@ -338,12 +357,6 @@ public class TitleCommand implements CommandExecutor, TabCompleter {
         String bracketId = args[2];
         UUID playerUuid = player.getUniqueId();
 
-        // 检查是否拥有该称号
-        if (!titleManager.hasTitle(playerUuid, titleId)) {
-            MessageUtil.send(player, configManager.getMessage("title-not-found"));
-            return true;
-        }
-
         // 检查边框是否存在
         BracketManager bracketManager = plugin.getBracketManager();
         BracketData bracket = bracketManager.getPresetBracket(bracketId);
@@ -358,18 +371,26 @@ public class TitleCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        // 获取称号数据并更新边框
-        TitleData titleData = titleManager.getPlayerTitles(playerUuid).get(titleId);
-        titleData.setBracketLeft(bracket.getBracketLeft());
-        titleData.setBracketRight(bracket.getBracketRight());
-
-        titleManager.updatePlayerTitleData(playerUuid, titleId, titleData, success -> {
-            if (success) {
-                MessageUtil.send(player, "&a边框已更新为: " + bracket.getDisplayName());
-                MessageUtil.send(player, "&7预览: " + bracket.getPreview());
-            } else {
-                MessageUtil.send(player, "&c边框更新失败！");
+        // 等待称号数据加载完成后检查是否拥有该称号
+        titleManager.whenLoaded(player, state -> {
+            TitleData titleData = state != null ? state.getTitles().get(titleId) : null;
+            if (titleData == null || !titleData.isUsable()) {
+                MessageUtil.send(player, configManager.getMessage("title-not-found"));
+                return;
             }
+
+            // 更新边框
+            titleData.setBracketLeft(bracket.getBracketLeft());
+            titleData.setBracketRight(bracket.getBracketRight());
+
+            titleManager.updatePlayerTitleData(playerUuid, titleId, titleData, success -> {
+                if (success) {
+                    MessageUtil.send(player, "&a边框已更新为: " + bracket.getDisplayName());
+                    MessageUtil.send(player, "&7预览: " + bracket.getPreview());
+                } else {
+                    MessageUtil.send(player, "&c边框更新失败！");
+                }
+            });
         });
 
         return true;
@@ -499,6 +520,46 @@ public class TitleCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
+    private boolean handleStats(CommandSender sender) {
+        if (!sender.hasPermission("simpletitle.stats")) {
+            MessageUtil.send(sender, configManager.getMessage("no-permission"));
+            return true;
+        }
+
+        MessageUtil.send(sender, "&e========== 数据库队列状态 ==========");
+        for (DatabaseQueue.LaneStats lane : plugin.getDatabaseQueue().getLaneStats()) {
+            MessageUtil.send(sender, String.format("&7通道 &f#%d &7排队: &f%d &8(交互 %d / 后台 %d / 批量 %d) &7已完成: &f%d &7平均等待: &f%.1fms &7最大等待: &f%.1fms",
+                    lane.getIndex(), lane.getDepth(),
+                    lane.getDepth(DatabaseQueue.Priority.INTERACTIVE),
+                    lane.getDepth(DatabaseQueue.Priority.BACKGROUND),
+                    lane.getDepth(DatabaseQueue.Priority.BULK),
+                    lane.getCompleted(), lane.getAvgWaitMs(), lane.getMaxWaitMs()));
+            if (lane.getRejected() > 0 || lane.getShed() > 0 || lane.getOverflowed() > 0) {
+                MessageUtil.send(sender, String.format("&7  已拒绝: &c%d &7已丢弃: &c%d &7超额接受: &e%d",
+                        lane.getRejected(), lane.getShed(), lane.getOverflowed()));
+            }
+        }
+        TitleCacheManager.OfflineCacheStats offline = plugin.getTitleCacheManager().getOfflineCacheStats();
+        MessageUtil.send(sender, "&e------------ 离线玩家缓存 ------------");
+        MessageUtil.send(sender, String.format("&7条目: &f%d/%d &7命中: &f%d &7未命中: &f%d &8(命中率 %.1f%%) &7淘汰: &f%d",
+                offline.getSize(), offline.getMaxSize(), offline.getHits(), offline.getMisses(),
+                offline.getHitRate(), offline.getEvictions()));
+        MessageUtil.send(sender, String.format("&7无称号 UUID: &f%d &7免查询次数: &f%d",
+                offline.getEmptySize(), offline.getEmptyHits()));
+        MessageUtil.send(sender, String.format("&7退出宽限中: &f%d &7宽限内重新进入: &f%d",
+                plugin.getPlayerDataLoader().getDepartedCount(), plugin.getPlayerDataLoader().getRestoredCount()));
+        List<SchemaMigrator.MigrationStatus> migrations = plugin.getDatabaseManager().getSchemaMigrator().getPendingStatuses();
+        if (!migrations.isEmpty()) {
+            MessageUtil.send(sender, "&e------------ 数据库迁移 ------------");
+            for (SchemaMigrator.MigrationStatus migration : migrations) {
+                MessageUtil.send(sender, String.format("&7v%d &f%s &7状态: &f%s &7已完成批次: &f%d",
+                        migration.getVersion(), migration.getDescription(), migration.getState(), migration.getBatches()));
+            }
+        }
+        MessageUtil.send(sender, "&e====================================");
+        return true;
+    }
+
     private void sendHelp(CommandSender sender) {
         MessageUtil.send(sender, configManager.getMessage("help-header"));
         MessageUtil.send(sender, configManager.getMessage("help-title"));
@@ -519,6 +580,9 @@ public class TitleCommand implements CommandExecutor, TabCompleter {
         if (sender.hasPermission("simpletitle.import")) {
             MessageUtil.send(sender, configManager.getMessage("help-import"));
         }
+        if (sender.hasPermission("simpletitle.stats")) {
+            MessageUtil.send(sender, configManager.getMessage("help-stats"));
+        }
         MessageUtil.send(sender, configManager.getMessage("help-footer"));
     }
 
@@ -554,6 +618,9 @@ public class TitleCommand implements CommandExecutor, TabCompleter {
             if (sender.hasPermission("simpletitle.import")) {
                 subCommands.add("import");
             }
+            if (sender.hasPermission("simpletitle.stats")) {
+                subCommands.add("stats");
+            }
 
             String prefix = args[0].toLowerCase();
             completions.addAll(subCommands.stream()
@@ -1,6 +1,7 @@
 package dev.user.title.config;
 
 import dev.user.title.SimpleTitlePlugin;
+import dev.user.title.model.PresetTitleView;
 import dev.user.title.model.TitleData;
 import dev.user.title.model.TitleType;
 import org.bukkit.configuration.ConfigurationSection;
@@ -11,10 +12,12 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 
 /**
  * 配置管理器
@@ -35,6 +38,12 @@ public class ConfigManager {
     private String mysqlUsername;
     private String mysqlPassword;
     private int mysqlPoolSize;
+    private int databaseQueueLanes;
+    private int databaseQueueCapacity;
+    private String databaseQueueOverflowPolicy;
+    private boolean writeBehindEnabled;
+    private int writeBehindWindowMs;
+    private boolean uuidMigrationAllowMysql;
 
     // 默认边框
     private String defaultBracketLeft;
@@ -58,9 +67,24 @@ public class ConfigManager {
     // 动态称号配置
     private int dynamicTitleSwitchInterval;
     private int dynamicTitleMaxContents;
+    private boolean dynamicTitleClockDriven;
 
-    // 预设称号缓存
-    private Map<String, TitleData> presetTitles = new HashMap<>();
+    // 缓存配置
+    private boolean prefetchEnabled;
+    private int prefetchTimeoutMs;
+    private int joinBatchWindowMs;
+    private int joinBatchMaxSize;
+    private int offlineCacheMaxSize;
+    private int offlineCacheTtlSeconds;
+    private int emptyCacheMaxSize;
+    private int emptyCacheTtlSeconds;
+    private int quitGraceSeconds;
+
+    // 预设称号缓存（重载时整体替换，读取方不会看到加载到一半的目录）
+    private volatile Map<String, TitleData> presetTitles = Map.of();
+
+    // 玩家拥有的预设称号视图共享的查找函数
+    private final Function<String, TitleData> presetLookup = this::getPresetTitle;
 
     public ConfigManager(SimpleTitlePlugin plugin) {
         this.plugin = plugin;
@@ -81,6 +105,12 @@ public class ConfigManager {
         this.mysqlUsername = config.getString("database.mysql.username", "root");
         this.mysqlPassword = config.getString("database.mysql.password", "password");
         this.mysqlPoolSize = config.getInt("database.mysql.pool-size", 5);
+        this.databaseQueueLanes = config.getInt("database.queue.lanes", 4);
+        this.databaseQueueCapacity = config.getInt("database.queue.capacity", 10000);
+        this.databaseQueueOverflowPolicy = config.getString("database.queue.overflow-policy", "reject");
+        this.writeBehindEnabled = config.getBoolean("database.write-behind.enabled", false);
+        this.writeBehindWindowMs = config.getInt("database.write-behind.window-ms", 500);
+        this.uuidMigrationAllowMysql = config.getBoolean("database.uuid-migration.allow-mysql", false);
 
         // 读取默认边框
         this.defaultBracketLeft = config.getString("default-bracket.left", "[");
@@ -104,6 +134,23 @@ public class ConfigManager {
         // 读取动态称号配置
         this.dynamicTitleSwitchInterval = config.getInt("dynamic-title.switch-interval", 4);
         this.dynamicTitleMaxContents = config.getInt("dynamic-title.max-contents", 10);
+        this.dynamicTitleClockDriven = config.getBoolean("dynamic-title.clock-driven", true);
+
+        // 读取缓存配置
+        this.prefetchEnabled = config.getBoolean("cache.prefetch.enabled", true);
+        this.prefetchTimeoutMs = config.getInt("cache.prefetch.timeout-ms", 3000);
+        this.joinBatchWindowMs = config.getInt("cache.join-batch.window-ms", 20);
+        this.joinBatchMaxSize = config.getInt("cache.join-batch.max-size", 100);
+        this.offlineCacheMaxSize = config.getInt("cache.offline.max-size", 1000);
+        this.offlineCacheTtlSeconds = config.getInt("cache.offline.ttl-seconds", 300);
+        this.emptyCacheMaxSize = config.getInt("cache.offline.empty-max-size", 10000);
+        this.emptyCacheTtlSeconds = config.getInt("cache.offline.empty-ttl-seconds", 600);
+        this.quitGraceSeconds = config.getInt("cache.quit-grace-seconds", 60);
+        if (quitGraceSeconds > 0 && "mysql".equalsIgnoreCase(databaseType)) {
+            // 共享 MySQL 时玩家可能在其他服务器上修改了称号与边框，保留的缓存会过期并在之后被写回覆盖
+            plugin.getLogger().info("使用 MySQL 时不启用退出宽限时间 (cache.quit-grace-seconds)，玩家退出后立即卸载数据");
+            this.quitGraceSeconds = 0;
+        }
 
         // 加载消息配置
         loadMessagesConfig();
@@ -134,7 +181,7 @@ public class ConfigManager {
         this.titlesConfig = YamlConfiguration.loadConfiguration(titlesFile);
 
         // 解析预设称号
-        this.presetTitles.clear();
+        Map<String, TitleData> loaded = new HashMap<>();
         ConfigurationSection titlesSection = titlesConfig.getConfigurationSection("titles");
         if (titlesSection != null) {
             for (String titleId : titlesSection.getKeys(false)) {
@@ -142,12 +189,13 @@ public class ConfigManager {
                 if (titleSection != null) {
                     TitleData titleData = parseTitleData(titleSection);
                     titleData.setType(TitleType.PRESET);
-                    presetTitles.put(titleId, titleData);
+                    loaded.put(titleId, titleData);
                 }
             }
         }
+        this.presetTitles = Collections.unmodifiableMap(loaded);
 
-        plugin.getLogger().info("已加载 " + presetTitles.size() + " 个预设称号");
+        plugin.getLogger().info("已加载 " + loaded.size() + " 个预设称号");
     }
 
     private TitleData parseTitleData(ConfigurationSection section) {
@@ -158,9 +206,10 @@ public class ConfigManager {
         if (contents.isEmpty()) {
             // 兼容旧的 content 字段
             String singleContent = section.getString("content", "");
-            contents = java.util.Collections.singletonList(singleContent);
+            contents = Collections.singletonList(singleContent);
         }
-        data.setContents(contents);
+        // 预设内容由所有拥有者共享，不可修改
+        data.setContents(List.copyOf(contents));
 
         data.setBracketLeft(section.getString("bracket-left", defaultBracketLeft));
         data.setBracketRight(section.getString("bracket-right", defaultBracketRight));
@@ -204,6 +253,15 @@ public class ConfigManager {
         return new HashMap<>(presetTitles);
     }
 
+    /**
+     * 创建玩家拥有的预设称号视图（共享预设定义，只保存玩家选择的边框）
+     * @param bracketLeft 玩家选择的左边框，null 表示使用预设的边框
+     * @param bracketRight 玩家选择的右边框，null 表示使用预设的边框
+     */
+    public PresetTitleView createPresetView(String titleId, String bracketLeft, String bracketRight) {
+        return new PresetTitleView(titleId, presetLookup, bracketLeft, bracketRight);
+    }
+
     /**
      * 获取预设称号ID集合
      */
@@ -245,6 +303,30 @@ public class ConfigManager {
         return mysqlPoolSize;
     }
 
+    public int getDatabaseQueueLanes() {
+        return databaseQueueLanes;
+    }
+
+    public int getDatabaseQueueCapacity() {
+        return databaseQueueCapacity;
+    }
+
+    public String getDatabaseQueueOverflowPolicy() {
+        return databaseQueueOverflowPolicy;
+    }
+
+    public boolean isWriteBehindEnabled() {
+        return writeBehindEnabled;
+    }
+
+    public int getWriteBehindWindowMs() {
+        return writeBehindWindowMs;
+    }
+
+    public boolean isUuidMigrationAllowMysql() {
+        return uuidMigrationAllowMysql;
+    }
+
     public String getDefaultBracketLeft() {
         return defaultBracketLeft;
     }
@@ -305,6 +387,46 @@ public class ConfigManager {
         return dynamicTitleMaxContents;
     }
 
+    public boolean isDynamicTitleClockDriven() {
+        return dynamicTitleClockDriven;
+    }
+
+    public boolean isPrefetchEnabled() {
+        return prefetchEnabled;
+    }
+
+    public int getPrefetchTimeoutMs() {
+        return prefetchTimeoutMs;
+    }
+
+    public int getJoinBatchWindowMs() {
+        return joinBatchWindowMs;
+    }
+
+    public int getJoinBatchMaxSize() {
+        return joinBatchMaxSize;
+    }
+
+    public int getOfflineCacheMaxSize() {
+        return offlineCacheMaxSize;
+    }
+
+    public int getOfflineCacheTtlSeconds() {
+        return offlineCacheTtlSeconds;
+    }
+
+    public int getEmptyCacheMaxSize() {
+        return emptyCacheMaxSize;
+    }
+
+    public int getEmptyCacheTtlSeconds() {
+        return emptyCacheTtlSeconds;
+    }
+
+    public int getQuitGraceSeconds() {
+        return quitGraceSeconds;
+    }
+
     /**
      * 检查内容是否包含敏感词
      */
@@ -0,0 +1,149 @@
+package dev.user.title.database;
+
+import dev.user.title.SimpleTitlePlugin;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * v1: 将旧版 player_titles.on_use 标记迁移到 player_current_title
+ * 按 id 分批找出有旧版标记的玩家，每个玩家的迁移提交到该玩家的通道上执行，
+ * 与同一玩家的设置 / 清除当前称号依次执行，不会互相覆盖。
+ * 已有 player_current_title 记录的玩家以新表为准；迁移完成前读取会回退到 on_use
+ */
+public class CurrentTitleMigration implements SchemaMigration {
+
+    public static final int VERSION = 1;
+
+    // 每批覆盖的 id 范围（每批最多对应这么多个玩家任务）
+    private static final int BATCH_SIZE = 500;
+
+    private final SimpleTitlePlugin plugin;
+
+    // 本批找到的玩家，由 afterBatch 提交到各自的通道
+    private volatile List<UUID> batchPlayers = List.of();
+
+    public CurrentTitleMigration(SimpleTitlePlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public int getVersion() {
+        return VERSION;
+    }
+
+    @Override
+    public String getDescription() {
+        return "当前称号迁移到 player_current_title";
+    }
+
+    /**
+     * 玩家任务在游标保存后才执行，中断后从头查找仍有旧版标记的行（已迁移的行标记已清除）
+     */
+    @Override
+    public boolean isResumable() {
+        return false;
+    }
+
+    @Override
+    public String migrateBatch(Connection conn, String cursor) throws SQLException {
+        // 游标为已处理的最大 id，从其后第一个仍有旧版标记的行开始
+        long after = cursor != null ? Long.parseLong(cursor) : 0L;
+        long fromId;
+        try (PreparedStatement ps = conn.prepareStatement("SELECT MIN(id) FROM player_titles WHERE on_use = TRUE AND id > ?")) {
+            ps.setLong(1, after);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next() || rs.getObject(1) == null) {
+                    batchPlayers = List.of();
+                    return null;
+                }
+                fromId = rs.getLong(1);
+            }
+        }
+        long toId = fromId + BATCH_SIZE - 1;
+
+        DatabaseManager databaseManager = plugin.getDatabaseManager();
+        List<UUID> players = new ArrayList<>();
+        String sql = "SELECT DISTINCT player_uuid FROM player_titles WHERE on_use = TRUE AND id BETWEEN ? AND ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, fromId);
+            ps.setLong(2, toId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    players.add(databaseManager.getUuid(rs, "player_uuid"));
+                }
+            }
+        }
+        batchPlayers = players;
+        return String.valueOf(toId);
+    }
+
+    @Override
+    public CompletableFuture<Void> afterBatch(DatabaseQueue queue) {
+        List<UUID> players = batchPlayers;
+        batchPlayers = List.of();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[players.size()];
+        for (int i = 0; i < futures.length; i++) {
+            UUID playerUuid = players.get(i);
+            futures[i] = queue.submitEssential("currentTitleMigration", playerUuid, getPriority(),
+                    conn -> migratePlayer(conn, playerUuid));
+        }
+        return CompletableFuture.allOf(futures);
+    }
+
+    /**
+     * 迁移一个玩家的旧版标记（在该玩家的通道上执行，期间不会有该玩家的其他操作）
+     * 标记在执行时重新读取：提交之后被清除的标记不再迁移
+     */
+    private Void migratePlayer(Connection conn, UUID playerUuid) throws SQLException {
+        DatabaseManager databaseManager = plugin.getDatabaseManager();
+        String titleId;
+        // 同一玩家有多个旧版标记时只保留一个
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT MAX(title_id) FROM player_titles WHERE player_uuid = ? AND on_use = TRUE")) {
+            databaseManager.setUuid(ps, 1, playerUuid);
+            try (ResultSet rs = ps.executeQuery()) {
+                titleId = rs.next() ? rs.getString(1) : null;
+            }
+        }
+        if (titleId == null) {
+            return null;
+        }
+
+        // 已切换过称号（新表已有记录）的玩家以新表为准
+        String insertSql = (databaseManager.isMySQL() ? "INSERT IGNORE" : "INSERT") +
+                " INTO player_current_title (player_uuid, title_id, updated_at) " +
+                "SELECT player_uuid, title_id, ? FROM player_titles WHERE player_uuid = ? AND title_id = ? " +
+                "AND NOT EXISTS (SELECT 1 FROM player_current_title c WHERE c.player_uuid = player_titles.player_uuid)";
+        String clearSql = "UPDATE player_titles SET on_use = FALSE WHERE player_uuid = ? AND on_use = TRUE";
+        try {
+            conn.setAutoCommit(false);
+            try (PreparedStatement insert = conn.prepareStatement(insertSql);
+                 PreparedStatement clear = conn.prepareStatement(clearSql)) {
+                insert.setLong(1, System.currentTimeMillis());
+                databaseManager.setWrittenUuid(insert, 2, playerUuid);
+                insert.setString(3, titleId);
+                insert.executeUpdate();
+                databaseManager.setWrittenUuid(clear, 1, playerUuid);
+                clear.executeUpdate();
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            try {
+                conn.rollback();
+            } catch (SQLException rollbackEx) {
+                plugin.getLogger().warning("事务回滚失败: " + rollbackEx.getMessage());
+            }
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+        return null;
+    }
+}
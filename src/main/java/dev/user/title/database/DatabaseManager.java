@@ -10,21 +10,64 @@ import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.Driver;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 数据库管理器
  * 支持 H2（本地）和 MySQL（跨服）数据库
+ *
+ * 表结构升级由 SchemaMigrator 按 schema_version 管理
+ *
+ * player_uuid 列以二进制存储（MySQL BINARY(16)，H2 UUID）；旧版本创建的 VARCHAR(36) 表
+ * 在服务器运行期间由 UuidStorageMigration 迁移，迁移完成前仍按字符串读写，
+ * 读写 UUID 参数统一经过 setUuid / getUuid，写入语句使用 setWrittenUuid 以便迁移期间记录被写入的玩家
  */
 public class DatabaseManager {
 
+    // 玩家数据表（均以 player_uuid 为键）
+    static final String[] PLAYER_TABLES = {"player_titles", "player_brackets", "player_current_title"};
+
+    // player_titles 的列式称号数据（见 TitleColumns），旧表由迁移 v3 添加
+    static final String[][] TITLE_COLUMNS = {
+            {"storage_format", "SMALLINT"},
+            {"preset_id", "VARCHAR(64)"},
+            {"title_type", "VARCHAR(16)"},
+            {"bracket_left", "VARCHAR(" + TitleColumns.MAX_COLUMN_LENGTH + ")"},
+            {"bracket_right", "VARCHAR(" + TitleColumns.MAX_COLUMN_LENGTH + ")"},
+            {"prefix", "VARCHAR(" + TitleColumns.MAX_COLUMN_LENGTH + ")"},
+            {"suffix", "VARCHAR(" + TitleColumns.MAX_COLUMN_LENGTH + ")"},
+            {"display_name", "VARCHAR(" + TitleColumns.MAX_COLUMN_LENGTH + ")"},
+            {"contents", "TEXT"}
+    };
+    private static final String TITLE_COLUMN_DEFINITIONS = titleColumnDefinitions();
+
+    // 玩家数据表的索引: {索引名, 表名, 列}
+    static final String[][] PLAYER_INDEXES = {
+            {"idx_player_on_use", "player_titles", "player_uuid, on_use"},
+            {"idx_player_uuid", "player_titles", "player_uuid"}
+    };
+
     private final SimpleTitlePlugin plugin;
+    private final SchemaMigrator schemaMigrator;
     private HikariDataSource dataSource;
 
+    // player_uuid 列是否已是二进制格式
+    private volatile boolean binaryUuid;
+
+    // UUID 迁移期间被写入过的玩家（迁移切换前需要重新同步）
+    private final Set<UUID> writtenPlayers = ConcurrentHashMap.newKeySet();
+    private volatile boolean trackingWrites;
+
     public DatabaseManager(SimpleTitlePlugin plugin) {
         this.plugin = plugin;
+        this.schemaMigrator = new SchemaMigrator(plugin, this);
     }
 
     public boolean init() {
@@ -173,21 +216,16 @@ public class DatabaseManager {
     }
 
     private void createTables() throws SQLException {
-        boolean isMySQL = isMySQL();
         try (Connection conn = getConnection(); Statement stmt = conn.createStatement()) {
 
-            // 玩家称号表
-            String idColumn = isMySQL ? "id BIGINT AUTO_INCREMENT PRIMARY KEY" : "id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY";
-            String playerTitlesTable = "CREATE TABLE IF NOT EXISTS player_titles (" +
-                    idColumn + "," +
-                    "    player_uuid VARCHAR(36) NOT NULL," +
-                    "    title_id VARCHAR(64) NOT NULL," +
-                    "    title_data TEXT NOT NULL," +
-                    "    on_use BOOLEAN DEFAULT FALSE," +
-                    "    obtained_at BIGINT NOT NULL," +
-                    "    UNIQUE(player_uuid, title_id)" +
-                    ")";
-            stmt.execute(playerTitlesTable);
+            // 恢复中断的 UUID 迁移切换，并检测现有表的 UUID 存储格式（新安装直接使用二进制）
+            recoverInterruptedCutover(conn, stmt);
+            String existingType = columnType(conn, "player_titles", "player_uuid");
+            boolean freshInstall = existingType == null;
+            binaryUuid = freshInstall || !existingType.toUpperCase().contains("CHAR");
+
+            // 玩家数据表
+            createPlayerTables(stmt, "", uuidColumnType(binaryUuid));
 
             // 预设称号表
             String presetTitlesTable = "CREATE TABLE IF NOT EXISTS preset_titles (" +
@@ -197,36 +235,124 @@ public class DatabaseManager {
                     ")";
             stmt.execute(presetTitlesTable);
 
-            // 玩家边框表
-            String playerBracketsTable = "CREATE TABLE IF NOT EXISTS player_brackets (" +
-                    "    player_uuid VARCHAR(36) NOT NULL," +
-                    "    bracket_id VARCHAR(64) NOT NULL," +
-                    "    obtained_at BIGINT NOT NULL," +
-                    "    PRIMARY KEY(player_uuid, bracket_id)" +
-                    ")";
-            stmt.execute(playerBracketsTable);
-
             // 创建索引
-            createIndexes(stmt, isMySQL);
+            createIndexes(stmt, "");
+
+            // 执行尚未执行的结构变更（数据回填在启动后于数据库队列上进行）
+            schemaMigrator.migrateSchema(conn, freshInstall);
 
             plugin.getLogger().info("数据库表创建/检查完成");
         }
     }
 
     /**
-     * 创建数据库索引
-     * MySQL 不支持 IF NOT EXISTS，需要手动检查
+     * 创建玩家数据表（UUID 迁移时用 suffix 创建新格式的副本表）
      */
-    private void createIndexes(Statement stmt, boolean isMySQL) throws SQLException {
-        // 定义要创建的索引
-        String[][] indexes = {
-            {"idx_player_on_use", "player_titles", "player_uuid, on_use"},
-            {"idx_player_uuid", "player_titles", "player_uuid"}
-        };
+    void createPlayerTables(Statement stmt, String suffix, String uuidType) throws SQLException {
+        boolean isMySQL = isMySQL();
+
+        // 玩家称号表
+        String idColumn = isMySQL ? "id BIGINT AUTO_INCREMENT PRIMARY KEY" : "id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY";
+        String playerTitlesTable = "CREATE TABLE IF NOT EXISTS player_titles" + suffix + " (" +
+                idColumn + "," +
+                "    player_uuid " + uuidType + " NOT NULL," +
+                "    title_id VARCHAR(64) NOT NULL," +
+                "    title_data TEXT NOT NULL," +
+                "    on_use BOOLEAN DEFAULT FALSE," +
+                "    obtained_at BIGINT NOT NULL," +
+                TITLE_COLUMN_DEFINITIONS +
+                "    UNIQUE(player_uuid, title_id)" +
+                ")";
+        stmt.execute(playerTitlesTable);
+
+        // 玩家当前称号表（每个玩家一行，切换称号只需一次 upsert）
+        String playerCurrentTitleTable = "CREATE TABLE IF NOT EXISTS player_current_title" + suffix + " (" +
+                "    player_uuid " + uuidType + " PRIMARY KEY," +
+                "    title_id VARCHAR(64) NOT NULL," +
+                "    updated_at BIGINT NOT NULL" +
+                ")";
+        stmt.execute(playerCurrentTitleTable);
+
+        // 玩家边框表
+        String playerBracketsTable = "CREATE TABLE IF NOT EXISTS player_brackets" + suffix + " (" +
+                "    player_uuid " + uuidType + " NOT NULL," +
+                "    bracket_id VARCHAR(64) NOT NULL," +
+                "    obtained_at BIGINT NOT NULL," +
+                "    PRIMARY KEY(player_uuid, bracket_id)" +
+                ")";
+        stmt.execute(playerBracketsTable);
+    }
 
-        for (String[] index : indexes) {
-            String indexName = index[0];
-            String tableName = index[1];
+    /**
+     * UUID 迁移在 H2 上逐表重命名，若在两次重命名之间中断，把已就绪的新表换回原名
+     */
+    private void recoverInterruptedCutover(Connection conn, Statement stmt) throws SQLException {
+        for (String table : PLAYER_TABLES) {
+            String migrated = table + UuidStorageMigration.TARGET_SUFFIX;
+            if (!tableExists(conn, table) && tableExists(conn, migrated)) {
+                plugin.getLogger().warning("检测到中断的 UUID 迁移，恢复表 " + table);
+                stmt.execute("ALTER TABLE " + migrated + " RENAME TO " + table);
+            }
+        }
+    }
+
+    /**
+     * 列不存在时添加（可为空的列，MySQL 8 以 INSTANT 方式添加，不重建表）
+     */
+    void addColumnIfMissing(Connection conn, Statement stmt, String table, String column, String definition) throws SQLException {
+        if (columnType(conn, table, column) == null) {
+            stmt.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+        }
+    }
+
+    private static String titleColumnDefinitions() {
+        StringBuilder sb = new StringBuilder();
+        for (String[] column : TITLE_COLUMNS) {
+            sb.append("    ").append(column[0]).append(' ').append(column[1]).append(',');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 检查表是否存在（H2 未加引号的标识符为大写）
+     */
+    boolean tableExists(Connection conn, String table) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        for (String name : new String[]{table, table.toUpperCase()}) {
+            try (ResultSet rs = meta.getTables(conn.getCatalog(), null, name, new String[]{"TABLE"})) {
+                if (rs.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 获取列的类型名，表或列不存在时返回 null
+     */
+    String columnType(Connection conn, String table, String column) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        for (String[] names : new String[][]{{table, column}, {table.toUpperCase(), column.toUpperCase()}}) {
+            try (ResultSet rs = meta.getColumns(conn.getCatalog(), null, names[0], names[1])) {
+                if (rs.next()) {
+                    return rs.getString("TYPE_NAME");
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 创建数据库索引（UUID 迁移时用 suffix 为副本表创建）
+     * MySQL 不支持 IF NOT EXISTS，需要手动检查；
+     * H2 的索引名在整个 schema 内唯一，副本表的索引名带上同样的后缀
+     */
+    void createIndexes(Statement stmt, String suffix) throws SQLException {
+        boolean isMySQL = isMySQL();
+        for (String[] index : PLAYER_INDEXES) {
+            String indexName = isMySQL ? index[0] : index[0] + suffix;
+            String tableName = index[1] + suffix;
             String columnName = index[2];
 
             try {
@@ -255,6 +381,119 @@ public class DatabaseManager {
         return dataSource.getConnection();
     }
 
+    /**
+     * 连接池的最大连接数
+     */
+    public int getPoolSize() {
+        return dataSource.getMaximumPoolSize();
+    }
+
+    public SchemaMigrator getSchemaMigrator() {
+        return schemaMigrator;
+    }
+
+    // ==================== UUID 存储 ====================
+
+    /**
+     * 按当前存储格式设置 UUID 参数
+     */
+    public void setUuid(PreparedStatement ps, int index, UUID uuid) throws SQLException {
+        if (!binaryUuid) {
+            ps.setString(index, uuid.toString());
+        } else if (isMySQL()) {
+            ps.setBytes(index, toBytes(uuid));
+        } else {
+            ps.setObject(index, uuid);
+        }
+    }
+
+    /**
+     * 设置写入语句（INSERT / UPDATE / DELETE / MERGE）的 UUID 参数
+     * UUID 迁移期间记录被写入的玩家，切换前统一重新同步；只读查询使用 setUuid
+     */
+    public void setWrittenUuid(PreparedStatement ps, int index, UUID uuid) throws SQLException {
+        markWritten(uuid);
+        setUuid(ps, index, uuid);
+    }
+
+    /**
+     * 按当前存储格式读取 UUID 列
+     */
+    public UUID getUuid(ResultSet rs, String column) throws SQLException {
+        if (!binaryUuid) {
+            return UUID.fromString(rs.getString(column));
+        }
+        if (isMySQL()) {
+            return fromBytes(rs.getBytes(column));
+        }
+        return rs.getObject(column, UUID.class);
+    }
+
+    /**
+     * player_uuid 列是否已是二进制格式
+     */
+    public boolean isBinaryUuid() {
+        return binaryUuid;
+    }
+
+    /**
+     * 切换到二进制格式（UUID 迁移切换时调用，此时所有数据库通道都已暂停）
+     */
+    void useBinaryUuid() {
+        binaryUuid = true;
+    }
+
+    /**
+     * player_uuid 列的类型定义
+     */
+    String uuidColumnType(boolean binary) {
+        if (!binary) {
+            return "VARCHAR(36)";
+        }
+        return isMySQL() ? "BINARY(16)" : "UUID";
+    }
+
+    /**
+     * 开始/停止记录被写入的玩家（UUID 迁移期间）
+     */
+    void trackWrites(boolean tracking) {
+        trackingWrites = tracking;
+        if (!tracking) {
+            writtenPlayers.clear();
+        }
+    }
+
+    /**
+     * 取出并清空已记录的玩家
+     */
+    Set<UUID> drainWrittenPlayers() {
+        Set<UUID> drained = ConcurrentHashMap.newKeySet();
+        for (UUID uuid : writtenPlayers) {
+            if (writtenPlayers.remove(uuid)) {
+                drained.add(uuid);
+            }
+        }
+        return drained;
+    }
+
+    private void markWritten(UUID uuid) {
+        if (trackingWrites) {
+            writtenPlayers.add(uuid);
+        }
+    }
+
+    private static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    private static UUID fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
     public void close() {
         if (dataSource != null && !dataSource.isClosed()) {
             // 关闭连接池（DB_CLOSE_DELAY=0 确保连接立即释放）
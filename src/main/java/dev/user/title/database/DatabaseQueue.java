@@ -3,25 +3,79 @@ package dev.user.title.database;
 import dev.user.title.SimpleTitlePlugin;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Deque;
+import java.util.UUID;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 /**
  * 异步数据库操作队列
- * 所有数据库操作提交到队列异步执行，完成后回调到主线程
+ * 所有数据库操作提交到队列异步执行，完成后经回调分发器回到服务器线程
+ *
+ * 队列分为多条通道（lane），每条通道一个线程、一个连接：
+ * 带 key（通常是玩家 UUID）的任务固定落在同一通道，同一玩家的操作严格按提交顺序执行；
+ * 不同玩家的操作在不同通道上并行，一个慢查询只会阻塞它所在的通道
+ *
+ * 每条通道内再按优先级分为交互（INTERACTIVE）、后台（BACKGROUND）、批量（BULK）三个队列：
+ * 高优先级先执行，但连续执行若干个后必须让低优先级执行一次，既不会饿死批量任务，
+ * 交互任务最多等待正在执行的一个批量任务，导入、迁移可以在有玩家在线时进行。
+ * 顺序保证只在同一优先级内成立：同一 key 以不同优先级提交的任务可能被高优先级越过，
+ * 因此玩家数据的读写都以交互优先级提交；独占任务例外，它之前提交的所有优先级的任务都先执行
+ *
+ * 提交不会阻塞调用线程：每条通道有容量上限，满了以后按溢出策略处理
+ * （直接拒绝，或丢弃最早的批量/后台任务腾出位置），被拒绝或丢弃的任务通过错误回调通知。
+ * 溢出策略作用于所有优先级，交互任务另有一倍容量的余量：通道满、又没有可丢弃的任务时，
+ * 玩家操作在余量内照样接受（不让后台积压挡住玩家），余量也用完才拒绝。
+ * 必要任务（迁移批次及其玩家任务、独占任务，见 submitEssential）不会被拒绝或丢弃：
+ * 它们同一时间最多一批，丢掉一个会让迁移失败或停滞
  */
 public class DatabaseQueue {
 
+    // 独占任务等待所有通道暂停的最长时间
+    private static final long EXCLUSIVE_TIMEOUT_SECONDS = 30;
+
+    // 独占任务的执行状态
+    private static final int EXCLUSIVE_WAITING = 0;
+    private static final int EXCLUSIVE_RUNNING = 1;
+    private static final int EXCLUSIVE_ABORTED = 2;
+
     private final SimpleTitlePlugin plugin;
-    private final BlockingQueue<DatabaseTask<?>> taskQueue;
+    private final Lane[] lanes;
     private final ExecutorService executor;
+    private final AtomicInteger roundRobin = new AtomicInteger();
+    private final int laneCapacity;
+    // 交互任务的容量上限（含余量）
+    private final int interactiveCapacity;
+    private final OverflowPolicy overflowPolicy;
     private volatile boolean running = true;
 
     public DatabaseQueue(SimpleTitlePlugin plugin) {
         this.plugin = plugin;
-        this.taskQueue = new LinkedBlockingQueue<>();
-        this.executor = Executors.newSingleThreadExecutor(r -> {
-            Thread t = new Thread(r, "SimpleTitle-DB-Queue");
+
+        int configuredLanes = Math.max(1, plugin.getConfigManager().getDatabaseQueueLanes());
+        // 每条通道执行任务时占用一个连接，独占任务（submitExclusive）需要所有通道同时持有连接，
+        // 通道数超过连接池大小时部分通道拿不到连接，独占任务只能等到超时，因此按连接池大小限制通道数
+        int poolSize = plugin.getDatabaseManager().getPoolSize();
+        int laneCount = Math.min(configuredLanes, poolSize);
+        if (laneCount < configuredLanes) {
+            plugin.getLogger().warning("database.queue.lanes=" + configuredLanes + " 超过连接池大小 " + poolSize
+                    + "，通道数已减少为 " + laneCount);
+        }
+        this.laneCapacity = Math.max(1, plugin.getConfigManager().getDatabaseQueueCapacity());
+        this.interactiveCapacity = (int) Math.min(Integer.MAX_VALUE, 2L * laneCapacity);
+        this.overflowPolicy = OverflowPolicy.fromConfig(plugin.getConfigManager().getDatabaseQueueOverflowPolicy());
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(i);
+        }
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(laneCount, r -> {
+            Thread t = new Thread(r, "SimpleTitle-DB-Queue-" + threadIndex.getAndIncrement());
             t.setDaemon(true);
             return t;
         });
@@ -30,19 +84,22 @@ public class DatabaseQueue {
     }
 
     private void startProcessing() {
-        executor.submit(() -> {
-            while (running || !taskQueue.isEmpty()) {
-                try {
-                    DatabaseTask<?> task = taskQueue.poll(100, TimeUnit.MILLISECONDS);
-                    if (task != null) {
-                        processTask(task);
+        for (Lane lane : lanes) {
+            executor.submit(() -> {
+                while (running || !lane.isEmpty()) {
+                    try {
+                        DatabaseTask<?> task = lane.poll(100, TimeUnit.MILLISECONDS);
+                        if (task != null) {
+                            lane.recordWait(System.nanoTime() - task.getEnqueuedAt());
+                            processTask(task);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
                     }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
                 }
-            }
-        });
+            });
+        }
     }
 
     private <T> void processTask(DatabaseTask<T> task) {
@@ -59,7 +116,7 @@ public class DatabaseQueue {
 
             // 回调到主线程
             if (task.getCallback() != null) {
-                plugin.getServer().getGlobalRegionScheduler().execute(plugin, () -> {
+                dispatch(task, () -> {
                     try {
                         task.getCallback().accept(result);
                     } catch (Exception e) {
@@ -71,30 +128,225 @@ public class DatabaseQueue {
             plugin.getLogger().warning("数据库操作失败 [" + task.getName() + "]: " + e.getMessage());
 
             if (task.getErrorCallback() != null) {
-                plugin.getServer().getGlobalRegionScheduler().execute(plugin, () -> {
-                    task.getErrorCallback().accept(e);
-                });
+                dispatch(task, () -> task.getErrorCallback().accept(e));
+            }
+        } catch (RuntimeException e) {
+            // 数据解析等运行时异常不能让通道线程退出
+            plugin.getLogger().warning("数据库任务异常 [" + task.getName() + "]: " + e);
+
+            if (task.getErrorCallback() != null) {
+                SQLException wrapped = new SQLException(e.getMessage(), e);
+                dispatch(task, () -> task.getErrorCallback().accept(wrapped));
             }
         }
     }
 
-    public <T> void submit(String name, DatabaseOperation<T> operation, Consumer<T> callback, Consumer<SQLException> errorCallback) {
+    /**
+     * 回调执行位置：Future 任务直接在通道线程完成，由调用方决定后续在哪继续；
+     * 其余交给回调分发器，以玩家 UUID 为 key 的回到该玩家所在区域线程，其他回到全局区域线程
+     */
+    private void dispatch(DatabaseTask<?> task, Runnable runnable) {
+        if (task.isInline()) {
+            runnable.run();
+        } else {
+            UUID playerUuid = task.getKey() instanceof UUID uuid ? uuid : null;
+            plugin.getCallbackDispatcher().dispatch(playerUuid, runnable);
+        }
+    }
+
+    /**
+     * 按优先级提交任务，返回结果 Future（不阻塞）
+     * Future 在通道线程上完成，不经过调度器；失败、被拒绝或被丢弃时以 SQLException 异常完成
+     */
+    public <T> CompletableFuture<T> submitAsync(String name, Object key, Priority priority, DatabaseOperation<T> operation) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        DatabaseTask<T> task = new DatabaseTask<>(name, key, priority, operation, future::complete,
+                future::completeExceptionally, true);
+        enqueue(key, task);
+        return future;
+    }
+
+    /**
+     * 提交交互任务，返回结果 Future
+     */
+    public <T> CompletableFuture<T> submitAsync(String name, Object key, DatabaseOperation<T> operation) {
+        return submitAsync(name, key, Priority.INTERACTIVE, operation);
+    }
+
+    /**
+     * 提交必要任务（迁移批次等），返回结果 Future
+     * 不受容量限制，溢出时也不会被丢弃；调用方应保证同一时间的数量有上限（如迁移的一批）
+     */
+    public <T> CompletableFuture<T> submitEssential(String name, Object key, Priority priority, DatabaseOperation<T> operation) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        DatabaseTask<T> task = new DatabaseTask<>(name, key, priority, operation, future::complete,
+                future::completeExceptionally, true, false, true);
+        enqueue(key, task);
+        return future;
+    }
+
+    /**
+     * 提交独占任务：等所有通道都执行到该任务后，在其中一条通道上执行，其余通道暂停到它完成
+     * 此前提交的任务（不论优先级）都已执行完，此后提交的任务都在它之后执行（用于表结构切换等操作）
+     * 通道数不超过连接池大小（构造时保证），所有通道可以同时持有连接。等待通道暂停超时时放弃执行并以异常完成；
+     * 已开始执行后，其余通道一直暂停到它结束，不会在执行期间恢复
+     */
+    public <T> CompletableFuture<T> submitExclusive(String name, DatabaseOperation<T> operation) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (!running) {
+            future.completeExceptionally(new SQLException("数据库队列已关闭"));
+            return future;
+        }
+
+        CountDownLatch arrived = new CountDownLatch(lanes.length);
+        CountDownLatch finished = new CountDownLatch(1);
+        // 等待中 -> 执行中 / 已放弃，只能转换一次
+        AtomicInteger state = new AtomicInteger(EXCLUSIVE_WAITING);
+        for (int i = 0; i < lanes.length; i++) {
+            boolean leader = i == 0;
+            DatabaseOperation<Void> barrier = conn -> {
+                arrived.countDown();
+                try {
+                    if (!leader) {
+                        if (state.get() == EXCLUSIVE_ABORTED) {
+                            return null;
+                        }
+                        if (!finished.await(EXCLUSIVE_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                                && !state.compareAndSet(EXCLUSIVE_WAITING, EXCLUSIVE_ABORTED)) {
+                            // 独占任务已在执行，必须等它结束才能恢复
+                            finished.await();
+                        }
+                        return null;
+                    }
+                    try {
+                        if (!arrived.await(EXCLUSIVE_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                                || !state.compareAndSet(EXCLUSIVE_WAITING, EXCLUSIVE_RUNNING)) {
+                            state.set(EXCLUSIVE_ABORTED);
+                            throw new SQLException("等待数据库通道暂停超时");
+                        }
+                        future.complete(operation.execute(conn));
+                    } catch (SQLException | RuntimeException e) {
+                        future.completeExceptionally(e);
+                    } finally {
+                        finished.countDown();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    future.completeExceptionally(e);
+                }
+                return null;
+            };
+            // 独占任务不受容量限制，也不会被丢弃
+            lanes[i].reserve();
+            lanes[i].offer(new DatabaseTask<>(name, null, Priority.INTERACTIVE, barrier, null,
+                    future::completeExceptionally, true, true, true));
+        }
+        return future;
+    }
+
+    /**
+     * 按优先级提交任务到 key 对应的通道（不阻塞）
+     * @param key 顺序键（通常是玩家 UUID），相同 key、相同优先级的任务按提交顺序执行
+     *            （不同优先级之间不保证顺序）；为 null 时轮流分配通道
+     * @return 是否被接受；被拒绝时错误回调会收到通知
+     */
+    public <T> boolean submit(String name, Object key, Priority priority, DatabaseOperation<T> operation,
+                              Consumer<T> callback, Consumer<SQLException> errorCallback) {
+        return enqueue(key, new DatabaseTask<>(name, key, priority, operation, callback, errorCallback, false));
+    }
+
+    private boolean enqueue(Object key, DatabaseTask<?> task) {
+        String name = task.getName();
         if (!running) {
             plugin.getLogger().warning("数据库队列已关闭，无法提交任务: " + name);
-            return;
+            notifyDropped(task, "数据库队列已关闭");
+            return false;
         }
 
-        DatabaseTask<T> task = new DatabaseTask<>(name, operation, callback, errorCallback);
-        try {
-            taskQueue.offer(task, 5, TimeUnit.SECONDS);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            plugin.getLogger().warning("提交数据库任务被中断: " + name);
+        Lane lane = laneFor(key);
+        // 先原子地占用一个位置，检查与入队之间不会被其他线程挤满
+        if (!lane.tryReserve(laneCapacity)) {
+            DatabaseTask<?> shed = null;
+            if (task.isEssential()) {
+                // 必要任务不拒绝，超出容量也接受
+                lane.reserve();
+                lane.overflowed.incrementAndGet();
+            } else if (overflowPolicy == OverflowPolicy.DROP_OLDEST && (shed = lane.shedOldest()) != null) {
+                // 被丢弃任务的位置转给新任务
+                lane.shed.incrementAndGet();
+                plugin.getLogger().fine("数据库队列已满，丢弃任务: " + shed.getName());
+                notifyDropped(shed, "数据库队列已满，任务被丢弃");
+            } else if (task.getPriority() == Priority.INTERACTIVE && lane.tryReserve(interactiveCapacity)) {
+                // 玩家操作使用余量
+                lane.overflowed.incrementAndGet();
+            } else {
+                lane.rejected.incrementAndGet();
+                plugin.getLogger().fine("数据库队列已满，拒绝任务: " + name);
+                notifyDropped(task, "数据库队列已满");
+                return false;
+            }
         }
+
+        lane.offer(task);
+        return true;
+    }
+
+    /**
+     * 提交交互任务到 key 对应的通道
+     */
+    public <T> boolean submit(String name, Object key, DatabaseOperation<T> operation, Consumer<T> callback,
+                              Consumer<SQLException> errorCallback) {
+        return submit(name, key, Priority.INTERACTIVE, operation, callback, errorCallback);
     }
 
-    public void submit(String name, DatabaseOperation<Void> operation) {
-        submit(name, operation, null, null);
+    public <T> boolean submit(String name, DatabaseOperation<T> operation, Consumer<T> callback, Consumer<SQLException> errorCallback) {
+        return submit(name, null, operation, callback, errorCallback);
+    }
+
+    public boolean submit(String name, DatabaseOperation<Void> operation) {
+        return submit(name, null, operation, null, null);
+    }
+
+    /**
+     * 通知被拒绝或丢弃的任务
+     */
+    private void notifyDropped(DatabaseTask<?> task, String reason) {
+        if (task.getErrorCallback() != null) {
+            SQLException e = new SQLException(reason + ": " + task.getName());
+            dispatch(task, () -> task.getErrorCallback().accept(e));
+        }
+    }
+
+    /**
+     * key 固定落在的通道序号
+     * 需要把多个 key 的操作合并成一个任务时，只有同一通道的 key 才能合并，否则会打乱它们与各自其他操作的顺序
+     */
+    public int laneOf(Object key) {
+        if (lanes.length == 1) {
+            return 0;
+        }
+        int hash = key.hashCode();
+        // 打散 hashCode 的高位，避免 UUID 分布不均
+        hash ^= (hash >>> 16);
+        return Math.floorMod(hash, lanes.length);
+    }
+
+    private Lane laneFor(Object key) {
+        if (key != null) {
+            return lanes[laneOf(key)];
+        }
+        return lanes[Math.floorMod(roundRobin.getAndIncrement(), lanes.length)];
+    }
+
+    /**
+     * 获取各通道的运行指标
+     */
+    public List<LaneStats> getLaneStats() {
+        List<LaneStats> stats = new ArrayList<>(lanes.length);
+        for (Lane lane : lanes) {
+            stats.add(lane.snapshot());
+        }
+        return stats;
     }
 
     public void shutdown() {
@@ -109,27 +361,328 @@ public class DatabaseQueue {
         }
     }
 
+    /**
+     * 通道满时的溢出策略
+     */
+    public enum OverflowPolicy {
+        // 拒绝新任务（交互任务先使用余量）
+        REJECT,
+        // 丢弃最早的批量任务（其次是后台任务）腾出位置，没有可丢弃的则拒绝（交互任务先使用余量）
+        DROP_OLDEST;
+
+        static OverflowPolicy fromConfig(String value) {
+            if (value != null && value.replace('-', '_').equalsIgnoreCase("drop_oldest")) {
+                return DROP_OLDEST;
+            }
+            return REJECT;
+        }
+    }
+
+    /**
+     * 任务优先级
+     */
+    public enum Priority {
+        // 玩家操作：登录加载、购买、切换称号等
+        INTERACTIVE,
+        // 后台维护：迁移、清理等
+        BACKGROUND,
+        // 批量任务：数据导入等
+        BULK
+    }
+
     @FunctionalInterface
     public interface DatabaseOperation<T> {
         T execute(java.sql.Connection connection) throws SQLException;
     }
 
+    /**
+     * 单条通道：按优先级划分的任务队列 + 等待时间统计
+     */
+    private static class Lane {
+        // 连续执行多少个高优先级任务后让低优先级执行一次
+        private static final int STARVATION_LIMIT = 16;
+
+        private final int index;
+        private final Deque<DatabaseTask<?>>[] queues;
+        // 入队序号，独占任务据此找出比它更早提交的任务
+        private final AtomicLong sequence = new AtomicLong();
+        // 每个许可对应一个待执行任务
+        private final Semaphore available = new Semaphore(0);
+        // 已占用的位置数（包括已占用、尚未入队的任务），用于容量检查
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong shed = new AtomicLong();
+        private final AtomicLong overflowed = new AtomicLong();
+
+        // 仅由通道线程访问
+        private int interactiveStreak;
+        private int backgroundStreak;
+
+        @SuppressWarnings("unchecked")
+        Lane(int index) {
+            this.index = index;
+            this.queues = new Deque[Priority.values().length];
+            for (int i = 0; i < queues.length; i++) {
+                queues[i] = new ConcurrentLinkedDeque<>();
+            }
+        }
+
+        /**
+         * 未满时占用一个位置
+         */
+        boolean tryReserve(int capacity) {
+            int current;
+            do {
+                current = size.get();
+                if (current >= capacity) {
+                    return false;
+                }
+            } while (!size.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        /**
+         * 不检查容量，直接占用一个位置
+         */
+        void reserve() {
+            size.incrementAndGet();
+        }
+
+        /**
+         * 入队，调用前必须已占用位置
+         */
+        void offer(DatabaseTask<?> task) {
+            task.sequence = sequence.incrementAndGet();
+            queues[task.getPriority().ordinal()].offerLast(task);
+            available.release();
+        }
+
+        DatabaseTask<?> poll(long timeout, TimeUnit unit) throws InterruptedException {
+            if (!available.tryAcquire(timeout, unit)) {
+                return null;
+            }
+            DatabaseTask<?> task = next();
+            size.decrementAndGet();
+            return task;
+        }
+
+        boolean isEmpty() {
+            return available.availablePermits() == 0;
+        }
+
+        int depth() {
+            return size.get();
+        }
+
+        /**
+         * 取出最早的批量任务（其次是后台任务）用于丢弃，交互任务与必要任务不会被丢弃
+         * 取出的任务占用的位置不释放，由调用方转给新任务
+         */
+        DatabaseTask<?> shedOldest() {
+            // 先占用一个许可，保证通道线程不会因为任务被取走而拿到空队列
+            if (!available.tryAcquire()) {
+                return null;
+            }
+            DatabaseTask<?> task = removeOldestSheddable(queues[Priority.BULK.ordinal()]);
+            if (task == null) {
+                task = removeOldestSheddable(queues[Priority.BACKGROUND.ordinal()]);
+            }
+            if (task == null) {
+                available.release();
+            }
+            return task;
+        }
+
+        private static DatabaseTask<?> removeOldestSheddable(Deque<DatabaseTask<?>> queue) {
+            for (DatabaseTask<?> task : queue) {
+                // 与通道线程的 poll 竞争，移除成功才算取到
+                if (!task.isEssential() && queue.removeFirstOccurrence(task)) {
+                    return task;
+                }
+            }
+            return null;
+        }
+
+        private DatabaseTask<?> next() {
+            DatabaseTask<?> task = select();
+            if (task == null || !task.isBarrier()) {
+                return task;
+            }
+            // 独占任务：先执行比它更早提交的其他优先级任务，独占任务放回队首
+            DatabaseTask<?> earlier = pollEarlierThan(task.sequence);
+            if (earlier == null) {
+                return task;
+            }
+            queues[task.getPriority().ordinal()].offerFirst(task);
+            return earlier;
+        }
+
+        /**
+         * 取出一个序号小于给定值的队首任务，没有时返回 null
+         */
+        private DatabaseTask<?> pollEarlierThan(long limit) {
+            for (Deque<DatabaseTask<?>> queue : queues) {
+                DatabaseTask<?> head = queue.pollFirst();
+                if (head == null) {
+                    continue;
+                }
+                if (head.sequence < limit) {
+                    return head;
+                }
+                queue.offerFirst(head);
+            }
+            return null;
+        }
+
+        /**
+         * 按优先级与防饥饿规则选出下一个任务
+         */
+        private DatabaseTask<?> select() {
+            Deque<DatabaseTask<?>> interactive = queues[Priority.INTERACTIVE.ordinal()];
+            Deque<DatabaseTask<?>> background = queues[Priority.BACKGROUND.ordinal()];
+            Deque<DatabaseTask<?>> bulk = queues[Priority.BULK.ordinal()];
+
+            DatabaseTask<?> task;
+            if (interactiveStreak < STARVATION_LIMIT || (background.isEmpty() && bulk.isEmpty())) {
+                task = interactive.poll();
+                if (task != null) {
+                    interactiveStreak++;
+                    return task;
+                }
+            }
+            interactiveStreak = 0;
+
+            if (backgroundStreak < STARVATION_LIMIT || bulk.isEmpty()) {
+                task = background.poll();
+                if (task != null) {
+                    backgroundStreak++;
+                    return task;
+                }
+            }
+            backgroundStreak = 0;
+
+            task = bulk.poll();
+            if (task != null) {
+                return task;
+            }
+            // 许可保证至少有一个任务，兜底按优先级取
+            for (Deque<DatabaseTask<?>> queue : queues) {
+                task = queue.poll();
+                if (task != null) {
+                    return task;
+                }
+            }
+            return null;
+        }
+
+        void recordWait(long waitNanos) {
+            completed.incrementAndGet();
+            totalWaitNanos.addAndGet(waitNanos);
+            maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        }
+
+        LaneStats snapshot() {
+            long count = completed.get();
+            double avgWaitMs = count > 0 ? totalWaitNanos.get() / (double) count / 1_000_000D : 0D;
+            int[] depths = new int[queues.length];
+            for (int i = 0; i < queues.length; i++) {
+                depths[i] = queues[i].size();
+            }
+            return new LaneStats(index, depths, count, avgWaitMs, maxWaitNanos.get() / 1_000_000D,
+                    rejected.get(), shed.get(), overflowed.get());
+        }
+    }
+
+    /**
+     * 通道指标快照
+     */
+    public static class LaneStats {
+        private final int index;
+        private final int[] depths;
+        private final long completed;
+        private final double avgWaitMs;
+        private final double maxWaitMs;
+        private final long rejected;
+        private final long shed;
+        private final long overflowed;
+
+        public LaneStats(int index, int[] depths, long completed, double avgWaitMs, double maxWaitMs,
+                         long rejected, long shed, long overflowed) {
+            this.index = index;
+            this.depths = depths;
+            this.completed = completed;
+            this.avgWaitMs = avgWaitMs;
+            this.rejected = rejected;
+            this.shed = shed;
+            this.overflowed = overflowed;
+            this.maxWaitMs = maxWaitMs;
+        }
+
+        public int getIndex() { return index; }
+        public int getDepth() {
+            int total = 0;
+            for (int depth : depths) {
+                total += depth;
+            }
+            return total;
+        }
+        public int getDepth(Priority priority) { return depths[priority.ordinal()]; }
+        public long getCompleted() { return completed; }
+        public double getAvgWaitMs() { return avgWaitMs; }
+        public double getMaxWaitMs() { return maxWaitMs; }
+        public long getRejected() { return rejected; }
+        public long getShed() { return shed; }
+        // 通道已满时仍被接受的交互任务与必要任务数
+        public long getOverflowed() { return overflowed; }
+    }
+
     private static class DatabaseTask<T> {
         private final String name;
+        private final Object key;
+        private final Priority priority;
         private final DatabaseOperation<T> operation;
         private final Consumer<T> callback;
         private final Consumer<SQLException> errorCallback;
+        private final boolean inline;
+        // 独占任务的屏障
+        private final boolean barrier;
+        // 必要任务：不受容量限制，不会被丢弃
+        private final boolean essential;
+        private final long enqueuedAt = System.nanoTime();
+        // 入队序号（由通道在入队时分配）
+        private long sequence;
+
+        public DatabaseTask(String name, Object key, Priority priority, DatabaseOperation<T> operation,
+                            Consumer<T> callback, Consumer<SQLException> errorCallback, boolean inline) {
+            this(name, key, priority, operation, callback, errorCallback, inline, false, false);
+        }
 
-        public DatabaseTask(String name, DatabaseOperation<T> operation, Consumer<T> callback, Consumer<SQLException> errorCallback) {
+        public DatabaseTask(String name, Object key, Priority priority, DatabaseOperation<T> operation,
+                            Consumer<T> callback, Consumer<SQLException> errorCallback, boolean inline,
+                            boolean barrier, boolean essential) {
+            this.inline = inline;
+            this.barrier = barrier;
+            this.essential = essential;
             this.name = name;
+            this.key = key;
+            this.priority = priority;
             this.operation = operation;
             this.callback = callback;
             this.errorCallback = errorCallback;
         }
 
         public String getName() { return name; }
+        public Object getKey() { return key; }
+        public Priority getPriority() { return priority; }
         public DatabaseOperation<T> getOperation() { return operation; }
         public Consumer<T> getCallback() { return callback; }
         public Consumer<SQLException> getErrorCallback() { return errorCallback; }
+        public boolean isInline() { return inline; }
+        public boolean isBarrier() { return barrier; }
+        public boolean isEssential() { return essential; }
+        public long getEnqueuedAt() { return enqueuedAt; }
     }
 }
@@ -0,0 +1,321 @@
+package dev.user.title.database;
+
+import dev.user.title.model.TitleData;
+import dev.user.title.model.TitleType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * 延迟解码的称号数据
+ * 加载时只引用一个保存原始形式（旧版 JSON 或列值）的对象，首次访问任意字段时解码到自身继承的字段中，
+ * 随后丢弃原始数据：解码后只剩这一个对象，与直接解码得到的 TitleData 占用相同。
+ * 解码失败只记录一次，之后返回以称号ID显示的回退数据，并标记为不可用（不显示、不可使用、不写回数据库）
+ */
+final class LazyTitleData extends TitleData {
+
+    // 解码失败后 state 的取值
+    private static final Object FAILED = new Object();
+
+    // 解码前为 Raw，解码成功后为 null，失败后为 FAILED
+    private volatile Object state;
+
+    private LazyTitleData(Raw raw) {
+        super(true);
+        this.state = raw;
+    }
+
+    static LazyTitleData ofJson(Logger logger, UUID playerUuid, String titleId, String json) {
+        // 空字符串同样按 JSON 处理（得到默认值）
+        return new LazyTitleData(new JsonRaw(logger, playerUuid, titleId, json != null ? json : ""));
+    }
+
+    static LazyTitleData ofColumns(Logger logger, UUID playerUuid, String titleId,
+                                   String type, String bracketLeft, String bracketRight, String prefix,
+                                   String suffix, String displayName, String contents) {
+        return new LazyTitleData(new ColumnsRaw(logger, playerUuid, titleId,
+                type, bracketLeft, bracketRight, prefix, suffix, displayName, contents));
+    }
+
+    /**
+     * 确保已解码（继承的字段在 state 离开 Raw 之前写入，volatile 写保证读取方可见）
+     */
+    private void ensureDecoded() {
+        if (state instanceof Raw) {
+            decodeOnce();
+        }
+    }
+
+    private synchronized void decodeOnce() {
+        if (!(state instanceof Raw raw)) {
+            return;
+        }
+        TitleData data;
+        Object next = null;
+        try {
+            data = raw.decode();
+        } catch (RuntimeException e) {
+            // 可能在 GUI / 占位符所在的区域线程上，不向调用方抛出
+            raw.logger.warning("称号数据解码失败，已跳过: player=" + raw.playerUuid + ", title=" + raw.titleId
+                    + ": " + e.getMessage());
+            data = fallback(raw.titleId);
+            next = FAILED;
+        }
+        super.setContents(data.getContents());
+        super.setBracketLeft(data.getBracketLeft());
+        super.setBracketRight(data.getBracketRight());
+        super.setPrefix(data.getPrefix());
+        super.setSuffix(data.getSuffix());
+        super.setType(data.getType());
+        super.setDisplayName(data.getRawDisplayName());
+        super.setPriceMoney(data.getPriceMoney());
+        super.setPricePoints(data.getPricePoints());
+        super.setPermission(data.getPermission());
+        super.setSlot(data.getSlot());
+        super.setCategory(data.getCategory());
+        state = next;
+    }
+
+    /**
+     * 解码失败时使用的回退数据：默认边框，内容为称号ID
+     */
+    private static TitleData fallback(String titleId) {
+        TitleData data = new TitleData();
+        List<String> contents = new ArrayList<>();
+        contents.add(titleId);
+        data.setContents(contents);
+        return data;
+    }
+
+    @Override
+    public boolean isUsable() {
+        ensureDecoded();
+        return state != FAILED;
+    }
+
+    // ==================== 访问前先解码 ====================
+
+    @Override
+    public List<String> getContents() {
+        ensureDecoded();
+        return super.getContents();
+    }
+
+    @Override
+    public void setContents(List<String> contents) {
+        ensureDecoded();
+        super.setContents(contents);
+    }
+
+    @Override
+    public String getBracketLeft() {
+        ensureDecoded();
+        return super.getBracketLeft();
+    }
+
+    @Override
+    public void setBracketLeft(String bracketLeft) {
+        ensureDecoded();
+        super.setBracketLeft(bracketLeft);
+    }
+
+    @Override
+    public String getBracketRight() {
+        ensureDecoded();
+        return super.getBracketRight();
+    }
+
+    @Override
+    public void setBracketRight(String bracketRight) {
+        ensureDecoded();
+        super.setBracketRight(bracketRight);
+    }
+
+    @Override
+    public String getPrefix() {
+        ensureDecoded();
+        return super.getPrefix();
+    }
+
+    @Override
+    public void setPrefix(String prefix) {
+        ensureDecoded();
+        super.setPrefix(prefix);
+    }
+
+    @Override
+    public String getSuffix() {
+        ensureDecoded();
+        return super.getSuffix();
+    }
+
+    @Override
+    public void setSuffix(String suffix) {
+        ensureDecoded();
+        super.setSuffix(suffix);
+    }
+
+    @Override
+    public TitleType getType() {
+        ensureDecoded();
+        return super.getType();
+    }
+
+    @Override
+    public void setType(TitleType type) {
+        ensureDecoded();
+        super.setType(type);
+    }
+
+    @Override
+    public String getRawDisplayName() {
+        ensureDecoded();
+        return super.getRawDisplayName();
+    }
+
+    @Override
+    protected String getDisplayNameOrNull() {
+        ensureDecoded();
+        return super.getDisplayNameOrNull();
+    }
+
+    @Override
+    public void setDisplayName(String displayName) {
+        ensureDecoded();
+        super.setDisplayName(displayName);
+    }
+
+    @Override
+    public double getPriceMoney() {
+        ensureDecoded();
+        return super.getPriceMoney();
+    }
+
+    @Override
+    public void setPriceMoney(double priceMoney) {
+        ensureDecoded();
+        super.setPriceMoney(priceMoney);
+    }
+
+    @Override
+    public int getPricePoints() {
+        ensureDecoded();
+        return super.getPricePoints();
+    }
+
+    @Override
+    public void setPricePoints(int pricePoints) {
+        ensureDecoded();
+        super.setPricePoints(pricePoints);
+    }
+
+    @Override
+    public String getPermission() {
+        ensureDecoded();
+        return super.getPermission();
+    }
+
+    @Override
+    public void setPermission(String permission) {
+        ensureDecoded();
+        super.setPermission(permission);
+    }
+
+    @Override
+    public int getSlot() {
+        ensureDecoded();
+        return super.getSlot();
+    }
+
+    @Override
+    public void setSlot(int slot) {
+        ensureDecoded();
+        super.setSlot(slot);
+    }
+
+    @Override
+    public String getCategory() {
+        ensureDecoded();
+        return super.getCategory();
+    }
+
+    @Override
+    public void setCategory(String category) {
+        ensureDecoded();
+        super.setCategory(category);
+    }
+
+    @Override
+    public TitleData copy() {
+        ensureDecoded();
+        return super.copy();
+    }
+
+    // ==================== 原始数据（解码后丢弃） ====================
+
+    /**
+     * 解码前保存的原始数据与解码失败时记录日志用的上下文
+     */
+    private abstract static class Raw {
+        final Logger logger;
+        final UUID playerUuid;
+        final String titleId;
+
+        Raw(Logger logger, UUID playerUuid, String titleId) {
+            this.logger = logger;
+            this.playerUuid = playerUuid;
+            this.titleId = titleId;
+        }
+
+        abstract TitleData decode();
+    }
+
+    /**
+     * 旧版 JSON
+     */
+    private static final class JsonRaw extends Raw {
+        private final String json;
+
+        JsonRaw(Logger logger, UUID playerUuid, String titleId, String json) {
+            super(logger, playerUuid, titleId);
+            this.json = json;
+        }
+
+        @Override
+        TitleData decode() {
+            return TitleData.fromJson(json);
+        }
+    }
+
+    /**
+     * 列值（FORMAT_COLUMNS）
+     */
+    private static final class ColumnsRaw extends Raw {
+        private final String type;
+        private final String bracketLeft;
+        private final String bracketRight;
+        private final String prefix;
+        private final String suffix;
+        private final String displayName;
+        private final String contents;
+
+        ColumnsRaw(Logger logger, UUID playerUuid, String titleId, String type, String bracketLeft,
+                   String bracketRight, String prefix, String suffix, String displayName, String contents) {
+            super(logger, playerUuid, titleId);
+            this.type = type;
+            this.bracketLeft = bracketLeft;
+            this.bracketRight = bracketRight;
+            this.prefix = prefix;
+            this.suffix = suffix;
+            this.displayName = displayName;
+            this.contents = contents;
+        }
+
+        @Override
+        TitleData decode() {
+            return TitleColumns.decodeColumns(type, bracketLeft, bracketRight, prefix, suffix, displayName, contents);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package dev.user.title.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 数据库结构迁移
+ * 每个迁移有唯一递增的版本号，分两步执行：
+ * 1. migrateSchema：启动时在 onEnable 中同步执行的结构变更（加表、加列），应当很快
+ * 2. migrateBatch / complete：启动后在数据库队列上分批执行的数据回填，不阻塞启动，
+ *    每批结束后游标保存到 schema_version，中断后从该处继续
+ */
+public interface SchemaMigration {
+
+    /**
+     * 版本号（按升序执行）
+     */
+    int getVersion();
+
+    /**
+     * 迁移说明（用于日志与状态显示）
+     */
+    String getDescription();
+
+    /**
+     * 同步结构变更，默认无
+     */
+    default void migrateSchema(Connection conn) throws SQLException {
+    }
+
+    /**
+     * 执行一批数据回填
+     * @param cursor 上一批返回的游标，首批为 null
+     * @return 下一批的游标；全部完成时返回 null
+     */
+    default String migrateBatch(Connection conn, String cursor) throws SQLException {
+        return null;
+    }
+
+    /**
+     * 每批 migrateBatch 之后的异步步骤（如提交到各玩家通道上的任务），完成后才开始下一批，默认无
+     */
+    default CompletableFuture<Void> afterBatch(DatabaseQueue queue) {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * 回填结束后的收尾操作（如切换表），默认直接完成
+     */
+    default CompletableFuture<Void> complete(DatabaseQueue queue) {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * 迁移失败时调用，释放迁移期间占用的状态
+     */
+    default void onFailed() {
+    }
+
+    /**
+     * 中断后能否从保存的游标继续；不能时从头重新执行
+     */
+    default boolean isResumable() {
+        return true;
+    }
+
+    /**
+     * 当前环境下不能执行时返回原因（跳过本次执行，下次启动再检查），默认可以执行
+     */
+    default String getBlockedReason() {
+        return null;
+    }
+
+    /**
+     * 数据回填使用的队列优先级
+     */
+    default DatabaseQueue.Priority getPriority() {
+        return DatabaseQueue.Priority.BACKGROUND;
+    }
+}
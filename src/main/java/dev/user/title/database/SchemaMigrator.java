@@ -0,0 +1,322 @@
+package dev.user.title.database;
+
+import dev.user.title.SimpleTitlePlugin;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 数据库结构版本管理
+ * schema_version 表记录每个迁移的执行状态与回填游标：
+ * 启动时按版本顺序同步执行尚未执行的结构变更，之后在数据库队列上依次执行数据回填，
+ * 定期输出进度，中断后下次启动从保存的游标继续。
+ * 新安装直接建出最新结构，所有迁移记为已完成
+ */
+public class SchemaMigrator {
+
+    // 进度日志的最小间隔
+    private static final long PROGRESS_LOG_INTERVAL_MILLIS = 10_000L;
+
+    // 迁移认领的有效期：持有者超过该时间没有续期，视为已中断，其他服务器可以接手
+    private static final long CLAIM_EXPIRE_MILLIS = 5 * 60_000L;
+
+    // 本服务器的认领标识（写入 cursor_value）
+    private final String claimToken = "claim:" + UUID.randomUUID();
+
+    private final SimpleTitlePlugin plugin;
+    private final DatabaseManager databaseManager;
+    private final List<SchemaMigration> migrations = new ArrayList<>();
+
+    // 已完成的迁移版本
+    private final Set<Integer> completedVersions = ConcurrentHashMap.newKeySet();
+
+    // 未完成迁移的执行状态: version -> 状态
+    private final Map<Integer, MigrationStatus> statuses = new ConcurrentHashMap<>();
+
+    public SchemaMigrator(SimpleTitlePlugin plugin, DatabaseManager databaseManager) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        migrations.add(new CurrentTitleMigration(plugin));
+        migrations.add(new UuidStorageMigration(plugin, databaseManager));
+        migrations.add(new TitleColumnsMigration(plugin, databaseManager));
+        migrations.sort(Comparator.comparingInt(SchemaMigration::getVersion));
+    }
+
+    /**
+     * 启动时同步执行：创建版本表，执行尚未执行的结构变更
+     * @param freshInstall 是否为新安装（表由 createTables 直接建为最新结构）
+     */
+    void migrateSchema(Connection conn, boolean freshInstall) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                    "    version INT PRIMARY KEY," +
+                    "    description VARCHAR(128) NOT NULL," +
+                    "    cursor_value VARCHAR(255)," +
+                    "    completed BOOLEAN DEFAULT FALSE," +
+                    "    updated_at BIGINT NOT NULL" +
+                    ")");
+        }
+
+        Map<Integer, String> savedCursors = new HashMap<>();
+        try (PreparedStatement ps = conn.prepareStatement("SELECT version, cursor_value, completed FROM schema_version");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                int version = rs.getInt("version");
+                if (rs.getBoolean("completed")) {
+                    completedVersions.add(version);
+                } else {
+                    savedCursors.put(version, rs.getString("cursor_value"));
+                }
+            }
+        }
+
+        // 共用 MySQL 的多台服务器可能同时启动，后插入的一方忽略主键冲突，改为读取对方写入的记录
+        // （H2 为嵌入式数据库，同一时间只有一台服务器打开）
+        String insertSql = (databaseManager.isMySQL() ? "INSERT IGNORE" : "INSERT") +
+                " INTO schema_version (version, description, cursor_value, completed, updated_at) VALUES (?, ?, NULL, ?, ?)";
+        for (SchemaMigration migration : migrations) {
+            int version = migration.getVersion();
+            if (completedVersions.contains(version) || savedCursors.containsKey(version)) {
+                continue;
+            }
+            if (!freshInstall) {
+                plugin.getLogger().info("[迁移] v" + version + " " + migration.getDescription());
+                migration.migrateSchema(conn);
+            }
+            int inserted;
+            try (PreparedStatement ps = conn.prepareStatement(insertSql)) {
+                ps.setInt(1, version);
+                ps.setString(2, migration.getDescription());
+                ps.setBoolean(3, freshInstall);
+                ps.setLong(4, System.currentTimeMillis());
+                inserted = ps.executeUpdate();
+            }
+            if (inserted == 0) {
+                readVersion(conn, version, savedCursors);
+            } else if (freshInstall) {
+                completedVersions.add(version);
+            } else {
+                savedCursors.put(version, null);
+            }
+        }
+
+        for (SchemaMigration migration : migrations) {
+            if (savedCursors.containsKey(migration.getVersion())) {
+                String cursor = migration.isResumable() ? savedCursors.get(migration.getVersion()) : null;
+                statuses.put(migration.getVersion(), new MigrationStatus(migration, cursor));
+            }
+        }
+    }
+
+    /**
+     * 读取其他服务器已写入的迁移记录
+     */
+    private void readVersion(Connection conn, int version, Map<Integer, String> savedCursors) throws SQLException {
+        String sql = "SELECT cursor_value, completed FROM schema_version WHERE version = ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, version);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("schema_version 中缺少 v" + version + " 的记录");
+                }
+                if (rs.getBoolean("completed")) {
+                    completedVersions.add(version);
+                } else {
+                    savedCursors.put(version, rs.getString("cursor_value"));
+                }
+            }
+        }
+    }
+
+    /**
+     * 在数据库队列上依次执行未完成迁移的数据回填（不阻塞调用线程）
+     * 某个迁移失败时停止后续迁移，下次启动继续；当前环境下不能执行的迁移在启动时提示并跳过
+     */
+    public CompletableFuture<Void> startBackground(DatabaseQueue queue) {
+        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+        for (SchemaMigration migration : migrations) {
+            MigrationStatus status = statuses.get(migration.getVersion());
+            if (status == null) {
+                continue;
+            }
+            String blockedReason = migration.getBlockedReason();
+            if (blockedReason != null) {
+                status.state = State.BLOCKED;
+                plugin.getLogger().warning("[迁移] v" + migration.getVersion() + " " + migration.getDescription()
+                        + " 已跳过: " + blockedReason);
+                continue;
+            }
+            chain = chain.thenCompose(v -> runBackfill(queue, status));
+        }
+        return chain;
+    }
+
+    private CompletableFuture<Void> runBackfill(DatabaseQueue queue, MigrationStatus status) {
+        SchemaMigration migration = status.migration;
+        status.state = State.RUNNING;
+        status.startedAt = System.currentTimeMillis();
+        status.lastLogAt = status.startedAt;
+        plugin.getLogger().info("[迁移] v" + migration.getVersion() + " 开始后台执行: " + migration.getDescription());
+
+        return runBatch(queue, status)
+                .thenCompose(v -> migration.complete(queue))
+                .thenCompose(v -> queue.<Void>submitEssential("schemaMigration.complete", null, migration.getPriority(), conn -> {
+                    saveProgress(conn, migration.getVersion(), null, true);
+                    return null;
+                }))
+                .whenComplete((v, e) -> {
+                    if (e != null) {
+                        status.state = State.FAILED;
+                        migration.onFailed();
+                        releaseClaim(queue, migration);
+                        plugin.getLogger().warning("[迁移] v" + migration.getVersion() + " 失败，下次启动时继续: " + e.getMessage());
+                        return;
+                    }
+                    status.state = State.DONE;
+                    completedVersions.add(migration.getVersion());
+                    statuses.remove(migration.getVersion());
+                    plugin.getLogger().info("[迁移] v" + migration.getVersion() + " 完成，共 " + status.batches + " 批，耗时 "
+                            + (System.currentTimeMillis() - status.startedAt) + "ms");
+                });
+    }
+
+    /**
+     * 执行一批并保存游标，未完成时继续下一批
+     */
+    private CompletableFuture<Void> runBatch(DatabaseQueue queue, MigrationStatus status) {
+        SchemaMigration migration = status.migration;
+        CompletableFuture<String> batch = queue.submitEssential("schemaMigration.v" + migration.getVersion(), null,
+                migration.getPriority(), conn -> {
+            String next = migration.migrateBatch(conn, status.cursor);
+            if (next != null && migration.isResumable()) {
+                saveProgress(conn, migration.getVersion(), next, false);
+            }
+            return next;
+        });
+        return batch.thenCompose(next -> migration.afterBatch(queue).thenApply(v -> next)).thenCompose(next -> {
+            status.batches++;
+            status.cursor = next;
+            long now = System.currentTimeMillis();
+            if (now - status.lastLogAt >= PROGRESS_LOG_INTERVAL_MILLIS) {
+                status.lastLogAt = now;
+                plugin.getLogger().info("[迁移] v" + migration.getVersion() + " 进行中: 已完成 " + status.batches + " 批");
+            }
+            return next == null ? CompletableFuture.<Void>completedFuture(null) : runBatch(queue, status);
+        });
+    }
+
+    private void saveProgress(Connection conn, int version, String cursor, boolean completed) throws SQLException {
+        String sql = "UPDATE schema_version SET cursor_value = ?, completed = ?, updated_at = ? WHERE version = ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, cursor);
+            ps.setBoolean(2, completed);
+            ps.setLong(3, System.currentTimeMillis());
+            ps.setInt(4, version);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * 认领或续期一个迁移（多台服务器共用数据库时只允许一台执行，不能续期时中止）
+     * 认领记录在该迁移行的 cursor_value 中，只适用于不保存游标的迁移；完成时随游标一起清除
+     */
+    void claim(Connection conn, int version) throws SQLException {
+        long now = System.currentTimeMillis();
+        String sql = "UPDATE schema_version SET cursor_value = ?, updated_at = ? " +
+                     "WHERE version = ? AND completed = FALSE AND (cursor_value IS NULL OR cursor_value = ? OR updated_at < ?)";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, claimToken);
+            ps.setLong(2, now);
+            ps.setInt(3, version);
+            ps.setString(4, claimToken);
+            ps.setLong(5, now - CLAIM_EXPIRE_MILLIS);
+            if (ps.executeUpdate() == 0) {
+                throw new SQLException("迁移 v" + version + " 正由其他服务器执行");
+            }
+        }
+    }
+
+    /**
+     * 失败后释放本服务器的认领（没有认领时不影响保存的游标）
+     */
+    private void releaseClaim(DatabaseQueue queue, SchemaMigration migration) {
+        queue.<Void>submitEssential("schemaMigration.release", null, migration.getPriority(), conn -> {
+            String sql = "UPDATE schema_version SET cursor_value = NULL WHERE version = ? AND cursor_value = ?";
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setInt(1, migration.getVersion());
+                ps.setString(2, claimToken);
+                ps.executeUpdate();
+            }
+            return null;
+        }).exceptionally(e -> {
+            plugin.getLogger().warning("[迁移] v" + migration.getVersion() + " 释放认领失败: " + e.getMessage());
+            return null;
+        });
+    }
+
+    /**
+     * 指定版本的迁移是否已完成
+     */
+    public boolean isCompleted(int version) {
+        return completedVersions.contains(version);
+    }
+
+    /**
+     * 未完成迁移的状态（按版本顺序）
+     */
+    public List<MigrationStatus> getPendingStatuses() {
+        List<MigrationStatus> result = new ArrayList<>();
+        for (SchemaMigration migration : migrations) {
+            MigrationStatus status = statuses.get(migration.getVersion());
+            if (status != null) {
+                result.add(status);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    public enum State {
+        PENDING,
+        RUNNING,
+        FAILED,
+        // 当前环境下不能执行，已跳过
+        BLOCKED,
+        DONE
+    }
+
+    /**
+     * 迁移执行状态
+     */
+    public static final class MigrationStatus {
+        private final SchemaMigration migration;
+        private volatile String cursor;
+        private volatile State state = State.PENDING;
+        private volatile int batches;
+        private volatile long startedAt;
+        private volatile long lastLogAt;
+
+        MigrationStatus(SchemaMigration migration, String cursor) {
+            this.migration = migration;
+            this.cursor = cursor;
+        }
+
+        public int getVersion() { return migration.getVersion(); }
+        public String getDescription() { return migration.getDescription(); }
+        public State getState() { return state; }
+        public int getBatches() { return batches; }
+        public String getCursor() { return cursor; }
+    }
+}
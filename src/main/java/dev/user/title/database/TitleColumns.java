@@ -0,0 +1,290 @@
+package dev.user.title.database;
+
+import dev.user.title.SimpleTitlePlugin;
+import dev.user.title.model.PresetTitleView;
+import dev.user.title.model.TitleData;
+import dev.user.title.model.TitleType;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * player_titles 中称号数据的列式存储
+ * - 预设称号保存预设引用（preset_id）和玩家自己的边框，读取为共享预设定义的 PresetTitleView；
+ *   同时在内容列保存写入时的预设内容副本，预设被删除后据此重建称号
+ * - 自定义称号（以及预设已被删除的称号）把内容保存在独立的列中
+ * - storage_format 为空的旧数据仍是 title_data 中的 JSON，读取时兼容，由迁移 v3 逐批转换；
+ *   边框、前缀、后缀、名称超出列长度（MAX_COLUMN_LENGTH）的称号继续以 JSON 保存
+ * 新格式的行 title_data 为空字符串，加载时不再解析 JSON
+ */
+final class TitleColumns {
+
+    // 存储格式
+    static final int FORMAT_PRESET_REF = 1;
+    static final int FORMAT_COLUMNS = 2;
+
+    // bracket_left / bracket_right / prefix / suffix / display_name 的列长度
+    static final int MAX_COLUMN_LENGTH = 128;
+
+    // 动态称号多个内容之间的分隔符（单元分隔符，不会出现在称号文本中）
+    private static final String CONTENT_SEPARATOR = "\u001F";
+
+    // 读取称号数据需要的列（表别名 t）
+    static final String SELECT_COLUMNS = "t.title_data, t.storage_format, t.preset_id, t.title_type, " +
+            "t.bracket_left, t.bracket_right, t.prefix, t.suffix, t.display_name, t.contents";
+
+    // UNION 中非称号行占位用
+    static final String NULL_COLUMNS = "NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL";
+
+    // 写入称号数据的列（与 bind 的参数顺序一致）
+    static final String WRITE_COLUMNS = "title_data, storage_format, preset_id, title_type, " +
+            "bracket_left, bracket_right, prefix, suffix, display_name, contents";
+    static final int WRITE_COLUMN_COUNT = 10;
+
+    // 插入玩家称号，参数: player_uuid, title_id, WRITE_COLUMNS..., obtained_at
+    private static final String INSERT_SQL = "INSERT INTO player_titles (player_uuid, title_id, " + WRITE_COLUMNS +
+            ", on_use, obtained_at) VALUES (?, ?, " +
+            String.join(", ", Collections.nCopies(WRITE_COLUMN_COUNT, "?")) + ", FALSE, ?)";
+
+    // 更新已有称号的数据列（H2），参数: WRITE_COLUMNS..., player_uuid, title_id
+    private static final String UPDATE_SQL = "UPDATE player_titles SET " + WRITE_COLUMNS.replace(", ", " = ?, ") +
+            " = ? WHERE player_uuid = ? AND title_id = ?";
+
+    private final SimpleTitlePlugin plugin;
+
+    TitleColumns(SimpleTitlePlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * 插入或更新玩家称号，只写称号数据列（WRITE_COLUMNS），已有行的 on_use 与 obtained_at 保持不变
+     * - MySQL：INSERT ... ON DUPLICATE KEY UPDATE
+     * - H2：MERGE ... KEY 会覆盖列出的所有列，因此先批量 UPDATE，再批量 INSERT 没有更新到的行
+     * @param titles playerUuid -> (titleId -> 称号数据)
+     * @param obtainedAt 新插入的行的获得时间
+     * @return 写入的称号数量
+     */
+    int upsert(Connection conn, Map<UUID, Map<String, TitleData>> titles, long obtainedAt) throws SQLException {
+        DatabaseManager databaseManager = plugin.getDatabaseManager();
+        if (databaseManager.isMySQL()) {
+            int written = 0;
+            try (PreparedStatement ps = conn.prepareStatement(mysqlUpsertSql())) {
+                for (Map.Entry<UUID, Map<String, TitleData>> player : titles.entrySet()) {
+                    for (Map.Entry<String, TitleData> title : player.getValue().entrySet()) {
+                        bindInsert(databaseManager, ps, player.getKey(), title.getKey(), title.getValue(), obtainedAt);
+                        ps.addBatch();
+                        written++;
+                    }
+                }
+                if (written > 0) {
+                    ps.executeBatch();
+                }
+            }
+            return written;
+        }
+
+        List<UUID> uuids = new ArrayList<>();
+        List<String> titleIds = new ArrayList<>();
+        List<TitleData> datas = new ArrayList<>();
+        for (Map.Entry<UUID, Map<String, TitleData>> player : titles.entrySet()) {
+            for (Map.Entry<String, TitleData> title : player.getValue().entrySet()) {
+                uuids.add(player.getKey());
+                titleIds.add(title.getKey());
+                datas.add(title.getValue());
+            }
+        }
+        if (uuids.isEmpty()) {
+            return 0;
+        }
+
+        int[] updated;
+        try (PreparedStatement update = conn.prepareStatement(UPDATE_SQL)) {
+            for (int n = 0; n < uuids.size(); n++) {
+                int next = bind(update, 1, titleIds.get(n), datas.get(n));
+                databaseManager.setWrittenUuid(update, next, uuids.get(n));
+                update.setString(next + 1, titleIds.get(n));
+                update.addBatch();
+            }
+            updated = update.executeBatch();
+        }
+
+        boolean hasInsert = false;
+        try (PreparedStatement insert = conn.prepareStatement(INSERT_SQL)) {
+            for (int n = 0; n < uuids.size(); n++) {
+                if (updated[n] != 0) {
+                    continue;
+                }
+                bindInsert(databaseManager, insert, uuids.get(n), titleIds.get(n), datas.get(n), obtainedAt);
+                insert.addBatch();
+                hasInsert = true;
+            }
+            if (hasInsert) {
+                insert.executeBatch();
+            }
+        }
+        return uuids.size();
+    }
+
+    private static String mysqlUpsertSql() {
+        StringBuilder updates = new StringBuilder();
+        for (String column : WRITE_COLUMNS.split(", ")) {
+            if (updates.length() > 0) {
+                updates.append(", ");
+            }
+            updates.append(column).append(" = VALUES(").append(column).append(")");
+        }
+        return INSERT_SQL + " ON DUPLICATE KEY UPDATE " + updates;
+    }
+
+    private void bindInsert(DatabaseManager databaseManager, PreparedStatement ps, UUID playerUuid,
+                            String titleId, TitleData data, long obtainedAt) throws SQLException {
+        databaseManager.setWrittenUuid(ps, 1, playerUuid);
+        ps.setString(2, titleId);
+        int next = bind(ps, 3, titleId, data);
+        ps.setLong(next, obtainedAt);
+    }
+
+    /**
+     * 从 startIndex 开始绑定 WRITE_COLUMNS 对应的参数
+     * @return 下一个参数的位置
+     */
+    int bind(PreparedStatement ps, int startIndex, String titleId, TitleData data) throws SQLException {
+        int i = startIndex;
+        if (!fitsColumns(data)) {
+            // 超出列长度时按旧版 JSON 保存，读取时兼容
+            ps.setString(i++, data.toJson());
+            ps.setNull(i++, Types.SMALLINT);
+            for (int n = 2; n < WRITE_COLUMN_COUNT; n++) {
+                ps.setNull(i++, Types.VARCHAR);
+            }
+            return i;
+        }
+
+        boolean presetRef = data.getType() == TitleType.PRESET
+                && plugin.getConfigManager().getPresetTitle(titleId) != null;
+
+        ps.setString(i++, "");
+        if (presetRef) {
+            ps.setInt(i++, FORMAT_PRESET_REF);
+            ps.setString(i++, titleId);
+            ps.setString(i++, TitleType.PRESET.name());
+            if (data instanceof PresetTitleView view) {
+                // 未选择边框时保存为空，预设边框修改后随之生效
+                ps.setString(i++, view.getBracketLeftOverride());
+                ps.setString(i++, view.getBracketRightOverride());
+            } else {
+                ps.setString(i++, data.getBracketLeft());
+                ps.setString(i++, data.getBracketRight());
+            }
+            // 读取时前缀、后缀、名称、内容取自预设，这里保存的副本只在预设被删除后使用
+            return bindContent(ps, i, data);
+        }
+
+        ps.setInt(i++, FORMAT_COLUMNS);
+        ps.setNull(i++, Types.VARCHAR);
+        ps.setString(i++, data.getType() != null ? data.getType().name() : TitleType.CUSTOM.name());
+        ps.setString(i++, data.getBracketLeft());
+        ps.setString(i++, data.getBracketRight());
+        return bindContent(ps, i, data);
+    }
+
+    /**
+     * 绑定 prefix, suffix, display_name, contents
+     */
+    private static int bindContent(PreparedStatement ps, int startIndex, TitleData data) throws SQLException {
+        int i = startIndex;
+        ps.setString(i++, data.getPrefix());
+        ps.setString(i++, data.getSuffix());
+        ps.setString(i++, data.getRawDisplayName());
+        List<String> contents = data.getContents();
+        if (contents == null || contents.isEmpty()) {
+            ps.setNull(i++, Types.VARCHAR);
+        } else {
+            ps.setString(i++, String.join(CONTENT_SEPARATOR, contents));
+        }
+        return i;
+    }
+
+    /**
+     * 称号数据能否放入定长的列
+     * 边框来自 brackets.yml、名称长度由 custom-title.max-name-length 配置，都可能超过列长度
+     */
+    static boolean fitsColumns(TitleData data) {
+        return fits(data.getBracketLeft()) && fits(data.getBracketRight()) && fits(data.getPrefix())
+                && fits(data.getSuffix()) && fits(data.getRawDisplayName());
+    }
+
+    private static boolean fits(String value) {
+        return value == null || value.length() <= MAX_COLUMN_LENGTH;
+    }
+
+    /**
+     * 读取称号数据并立即解码（结果集需包含 SELECT_COLUMNS）
+     * 用于玩家当前使用的称号，解码失败在数据库线程上记录并缓存回退数据，见 {@link TitleData#isUsable()}
+     */
+    TitleData read(ResultSet rs, UUID playerUuid, String titleId) throws SQLException {
+        TitleData data = readLazy(rs, playerUuid, titleId);
+        data.isUsable();
+        return data;
+    }
+
+    /**
+     * 读取称号数据，推迟解码（结果集需包含 SELECT_COLUMNS）
+     * 预设引用直接返回视图；其余只保存原始列值，首次访问时才解析 JSON / 拆分内容。
+     * 用于加载玩家拥有但未使用的称号：多数称号在一次会话中不会被访问
+     */
+    TitleData readLazy(ResultSet rs, UUID playerUuid, String titleId) throws SQLException {
+        int format = rs.getInt("storage_format");
+        if (rs.wasNull()) {
+            // 尚未转换的旧数据
+            return LazyTitleData.ofJson(plugin.getLogger(), playerUuid, titleId, rs.getString("title_data"));
+        }
+        if (format == FORMAT_PRESET_REF) {
+            String presetId = rs.getString("preset_id");
+            String contents = rs.getString("contents");
+            if (contents != null && plugin.getConfigManager().getPresetTitle(presetId) == null) {
+                // 预设已被删除：用写入时保存的内容副本重建（此后按列式数据保存）
+                return LazyTitleData.ofColumns(plugin.getLogger(), playerUuid, titleId,
+                        TitleType.PRESET.name(), rs.getString("bracket_left"), rs.getString("bracket_right"),
+                        rs.getString("prefix"), rs.getString("suffix"), rs.getString("display_name"), contents);
+            }
+            // 共享预设定义，只保存玩家的边框选择；没有内容副本的旧行在预设被删除时以称号ID显示
+            return plugin.getConfigManager().createPresetView(presetId,
+                    rs.getString("bracket_left"), rs.getString("bracket_right"));
+        }
+        return LazyTitleData.ofColumns(plugin.getLogger(), playerUuid, titleId,
+                rs.getString("title_type"), rs.getString("bracket_left"), rs.getString("bracket_right"),
+                rs.getString("prefix"), rs.getString("suffix"), rs.getString("display_name"), rs.getString("contents"));
+    }
+
+    /**
+     * 由列值构造称号数据（FORMAT_COLUMNS）
+     */
+    static TitleData decodeColumns(String type, String bracketLeft, String bracketRight, String prefix,
+                                   String suffix, String displayName, String contents) {
+        TitleData data = new TitleData();
+        data.setType(type != null ? TitleType.valueOf(type) : TitleType.CUSTOM);
+        if (bracketLeft != null) {
+            data.setBracketLeft(bracketLeft);
+        }
+        if (bracketRight != null) {
+            data.setBracketRight(bracketRight);
+        }
+        data.setPrefix(prefix != null ? prefix : "");
+        data.setSuffix(suffix != null ? suffix : "");
+        data.setDisplayName(displayName != null ? displayName : "");
+        data.setContents(contents != null
+                ? new ArrayList<>(Arrays.asList(contents.split(CONTENT_SEPARATOR, -1)))
+                : new ArrayList<>());
+        return data;
+    }
+}
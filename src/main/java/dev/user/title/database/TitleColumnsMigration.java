@@ -0,0 +1,110 @@
+package dev.user.title.database;
+
+import dev.user.title.SimpleTitlePlugin;
+import dev.user.title.model.TitleData;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * v3: player_titles 的 JSON 称号数据转换为列式存储（见 TitleColumns）
+ * 结构变更只添加可为空的列；数据按 id 分批转换，转换前的行读取时仍按 JSON 解析
+ */
+public class TitleColumnsMigration implements SchemaMigration {
+
+    public static final int VERSION = 3;
+
+    // 每批转换的行数
+    private static final int BATCH_SIZE = 500;
+
+    private final SimpleTitlePlugin plugin;
+    private final DatabaseManager databaseManager;
+    private final TitleColumns titleColumns;
+
+    public TitleColumnsMigration(SimpleTitlePlugin plugin, DatabaseManager databaseManager) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        this.titleColumns = new TitleColumns(plugin);
+    }
+
+    @Override
+    public int getVersion() {
+        return VERSION;
+    }
+
+    @Override
+    public String getDescription() {
+        return "称号数据由 JSON 转为列式存储";
+    }
+
+    @Override
+    public void migrateSchema(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String[] column : DatabaseManager.TITLE_COLUMNS) {
+                databaseManager.addColumnIfMissing(conn, stmt, "player_titles", column[0], column[1]);
+            }
+        }
+    }
+
+    /**
+     * 游标为已转换的最大 id
+     */
+    @Override
+    public String migrateBatch(Connection conn, String cursor) throws SQLException {
+        long after = cursor != null ? Long.parseLong(cursor) : 0L;
+        String selectSql = "SELECT id, title_id, title_data FROM player_titles " +
+                           "WHERE id > ? AND storage_format IS NULL ORDER BY id LIMIT " + BATCH_SIZE;
+        // 转换期间被重新写入的行已是新格式，不覆盖
+        String updateSql = "UPDATE player_titles SET " + TitleColumns.WRITE_COLUMNS.replace(", ", " = ?, ") + " = ? " +
+                           "WHERE id = ? AND storage_format IS NULL";
+
+        long lastId = -1;
+        List<Long> skipped = new ArrayList<>();
+        List<Long> keptAsJson = new ArrayList<>();
+        try (PreparedStatement select = conn.prepareStatement(selectSql);
+             PreparedStatement update = conn.prepareStatement(updateSql)) {
+            select.setLong(1, after);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    lastId = rs.getLong("id");
+                    String titleId = rs.getString("title_id");
+                    TitleData data;
+                    try {
+                        data = TitleData.fromJson(rs.getString("title_data"));
+                    } catch (RuntimeException e) {
+                        // 无法解析的数据保持原样，读取时仍按 JSON 处理
+                        plugin.getLogger().warning("[迁移] 称号数据解析失败，跳过 id=" + lastId
+                                + " (title=" + titleId + "): " + e.getMessage());
+                        skipped.add(lastId);
+                        continue;
+                    }
+                    if (!TitleColumns.fitsColumns(data)) {
+                        // 超出列长度，保持 JSON（与 TitleColumns.bind 写入时的处理一致）
+                        keptAsJson.add(lastId);
+                        continue;
+                    }
+                    int next = titleColumns.bind(update, 1, titleId, data);
+                    update.setLong(next, lastId);
+                    update.addBatch();
+                }
+            }
+            if (lastId < 0) {
+                return null;
+            }
+            update.executeBatch();
+        }
+        if (!skipped.isEmpty()) {
+            plugin.getLogger().warning("[迁移] 本批 " + skipped.size() + " 行无法转换，保持 JSON: id=" + skipped);
+        }
+        if (!keptAsJson.isEmpty()) {
+            plugin.getLogger().warning("[迁移] 本批 " + keptAsJson.size() + " 行超出列长度 "
+                    + TitleColumns.MAX_COLUMN_LENGTH + "，保持 JSON: id=" + keptAsJson);
+        }
+        return String.valueOf(lastId);
+    }
+}
@@ -9,26 +9,45 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 /**
  * 称号数据访问层
  * 负责玩家称号和预设称号的 CRUD 操作
+ *
+ * 每个操作都返回 CompletableFuture（在数据库通道线程上完成，由调用方用 *Async + SchedulerExecutors
+ * 决定后续在哪里继续）；同名的 Consumer 版本经回调分发器把结果送回服务器线程：
+ * 玩家相关的操作回到该玩家所在区域线程，其余回到全局区域线程。
+ * 操作失败、被拒绝或被丢弃时 Consumer 版本记录日志并以失败值回调：
+ * 写入为 false / 0，查询为空集合或 null，titleIdExists 为 true（按已存在处理，不会重复创建）
  */
 public class TitleRepository {
 
+    // 当前称号的读取方式：优先 player_current_title，没有记录时回退到旧版 on_use 标记（迁移完成前）
+    private static final String CURRENT_JOIN =
+            "LEFT JOIN player_current_title c ON c.player_uuid = t.player_uuid ";
+    private static final String ON_USE_COLUMN =
+            "CASE WHEN c.player_uuid IS NULL THEN t.on_use WHEN c.title_id = t.title_id THEN TRUE ELSE FALSE END AS on_use";
+
     private final SimpleTitlePlugin plugin;
+    private final DatabaseManager databaseManager;
     private final DatabaseQueue dbQueue;
+    private final TitleColumns titleColumns;
 
     public TitleRepository(SimpleTitlePlugin plugin) {
         this.plugin = plugin;
+        this.databaseManager = plugin.getDatabaseManager();
         this.dbQueue = plugin.getDatabaseQueue();
+        this.titleColumns = new TitleColumns(plugin);
     }
 
     // ==================== 玩家称号操作 ====================
@@ -36,111 +55,228 @@ public class TitleRepository {
     /**
      * 异步获取玩家的所有称号
      */
-    public void getPlayerTitles(UUID playerUuid, Consumer<List<PlayerTitleEntry>> callback) {
-        dbQueue.submit("getPlayerTitles", conn -> {
+    public CompletableFuture<List<PlayerTitleEntry>> getPlayerTitles(UUID playerUuid) {
+        return dbQueue.submitAsync("getPlayerTitles", playerUuid, conn -> {
             List<PlayerTitleEntry> titles = new ArrayList<>();
-            String sql = "SELECT title_id, title_data, on_use, obtained_at FROM player_titles WHERE player_uuid = ?";
+            String sql = "SELECT t.title_id, " + TitleColumns.SELECT_COLUMNS + ", " + ON_USE_COLUMN + ", t.obtained_at " +
+                         "FROM player_titles t " + CURRENT_JOIN + "WHERE t.player_uuid = ?";
             try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                ps.setString(1, playerUuid.toString());
+                databaseManager.setUuid(ps, 1, playerUuid);
                 try (ResultSet rs = ps.executeQuery()) {
                     while (rs.next()) {
                         String titleId = rs.getString("title_id");
-                        String titleDataJson = rs.getString("title_data");
                         boolean onUse = rs.getBoolean("on_use");
                         long obtainedAt = rs.getLong("obtained_at");
 
-                        TitleData titleData = TitleData.fromJson(titleDataJson);
+                        // 只有当前称号立即解码，其余称号首次访问时再解码
+                        TitleData titleData = onUse
+                                ? titleColumns.read(rs, playerUuid, titleId)
+                                : titleColumns.readLazy(rs, playerUuid, titleId);
                         titles.add(new PlayerTitleEntry(titleId, titleData, onUse, obtainedAt));
                     }
                 }
             }
             return titles;
-        }, callback, null);
+        });
+    }
+
+    public void getPlayerTitles(UUID playerUuid, Consumer<List<PlayerTitleEntry>> callback) {
+        callback(playerUuid, getPlayerTitles(playerUuid), List.of(), callback);
+    }
+
+    /**
+     * 异步一次性加载玩家的称号（含当前称号）与边框
+     * 使用 UNION ALL 合并为一条查询，一个连接、一次往返
+     */
+    public CompletableFuture<PlayerData> loadPlayerData(UUID playerUuid) {
+        return dbQueue.submitAsync("loadPlayerData", playerUuid, conn -> {
+            List<PlayerTitleEntry> titles = new ArrayList<>();
+            Set<String> bracketIds = new HashSet<>();
+            String sql = "SELECT 0 AS kind, t.title_id AS item_id, " + TitleColumns.SELECT_COLUMNS + ", " + ON_USE_COLUMN + ", t.obtained_at " +
+                         "FROM player_titles t " + CURRENT_JOIN + "WHERE t.player_uuid = ? " +
+                         "UNION ALL " +
+                         "SELECT 1 AS kind, bracket_id AS item_id, " + TitleColumns.NULL_COLUMNS + ", FALSE, obtained_at " +
+                         "FROM player_brackets WHERE player_uuid = ?";
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                databaseManager.setUuid(ps, 1, playerUuid);
+                databaseManager.setUuid(ps, 2, playerUuid);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        String itemId = rs.getString("item_id");
+                        if (rs.getInt("kind") == 0) {
+                            boolean onUse = rs.getBoolean("on_use");
+                            TitleData titleData = onUse
+                                    ? titleColumns.read(rs, playerUuid, itemId)
+                                    : titleColumns.readLazy(rs, playerUuid, itemId);
+                            titles.add(new PlayerTitleEntry(itemId, titleData, onUse, rs.getLong("obtained_at")));
+                        } else {
+                            bracketIds.add(itemId);
+                        }
+                    }
+                }
+            }
+            return new PlayerData(titles, bracketIds);
+        });
+    }
+
+    public void loadPlayerData(UUID playerUuid, Consumer<PlayerData> callback) {
+        callback(playerUuid, loadPlayerData(playerUuid), null, callback);
+    }
+
+    /**
+     * 异步批量加载多个玩家的称号与边框（登录高峰合并查询）
+     * 一条 WHERE player_uuid IN (...) 查询取回整批数据，结果按玩家分组；
+     * 没有任何数据的玩家也会得到一个空的 PlayerData
+     *
+     * 任务提交到第一个玩家的通道：整批玩家应属于同一通道（DatabaseQueue.laneOf 相同），
+     * 才能与每个玩家的其他操作保持提交顺序
+     */
+    public CompletableFuture<Map<UUID, PlayerData>> loadPlayerDataBatch(Collection<UUID> playerUuids) {
+        List<UUID> uuids = new ArrayList<>(playerUuids);
+        if (uuids.isEmpty()) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+        return dbQueue.submitAsync("loadPlayerDataBatch", uuids.get(0), conn -> {
+            Map<UUID, PlayerData> result = new HashMap<>();
+            for (UUID uuid : uuids) {
+                result.put(uuid, new PlayerData(new ArrayList<>(), new HashSet<>()));
+            }
+
+            String placeholders = String.join(", ", Collections.nCopies(uuids.size(), "?"));
+            String sql = "SELECT t.player_uuid, 0 AS kind, t.title_id AS item_id, " + TitleColumns.SELECT_COLUMNS + ", " + ON_USE_COLUMN + ", t.obtained_at " +
+                         "FROM player_titles t " + CURRENT_JOIN + "WHERE t.player_uuid IN (" + placeholders + ") " +
+                         "UNION ALL " +
+                         "SELECT player_uuid, 1 AS kind, bracket_id AS item_id, " + TitleColumns.NULL_COLUMNS + ", FALSE, obtained_at " +
+                         "FROM player_brackets WHERE player_uuid IN (" + placeholders + ")";
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                int index = 1;
+                for (int pass = 0; pass < 2; pass++) {
+                    for (UUID uuid : uuids) {
+                        databaseManager.setUuid(ps, index++, uuid);
+                    }
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        UUID playerUuid = databaseManager.getUuid(rs, "player_uuid");
+                        PlayerData data = result.get(playerUuid);
+                        if (data == null) {
+                            continue;
+                        }
+                        String itemId = rs.getString("item_id");
+                        if (rs.getInt("kind") == 0) {
+                            boolean onUse = rs.getBoolean("on_use");
+                            TitleData titleData = onUse
+                                    ? titleColumns.read(rs, playerUuid, itemId)
+                                    : titleColumns.readLazy(rs, playerUuid, itemId);
+                            data.getTitles().add(new PlayerTitleEntry(itemId, titleData, onUse, rs.getLong("obtained_at")));
+                        } else {
+                            data.getBracketIds().add(itemId);
+                        }
+                    }
+                }
+            }
+            return result;
+        });
+    }
+
+    public void loadPlayerDataBatch(Collection<UUID> playerUuids, Consumer<Map<UUID, PlayerData>> callback) {
+        callback(loadPlayerDataBatch(playerUuids), Map.of(), callback);
     }
 
     /**
      * 异步获取玩家当前使用的称号
      */
-    public void getCurrentTitle(UUID playerUuid, Consumer<PlayerTitleEntry> callback) {
-        dbQueue.submit("getCurrentTitle", conn -> {
-            String sql = "SELECT title_id, title_data, on_use, obtained_at FROM player_titles WHERE player_uuid = ? AND on_use = TRUE";
+    public CompletableFuture<PlayerTitleEntry> getCurrentTitle(UUID playerUuid) {
+        return dbQueue.submitAsync("getCurrentTitle", playerUuid, conn -> {
+            String sql = "SELECT t.title_id, " + TitleColumns.SELECT_COLUMNS + ", t.obtained_at FROM player_titles t " + CURRENT_JOIN +
+                         "WHERE t.player_uuid = ? AND (c.title_id = t.title_id OR (c.player_uuid IS NULL AND t.on_use = TRUE))";
             try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                ps.setString(1, playerUuid.toString());
+                databaseManager.setUuid(ps, 1, playerUuid);
                 try (ResultSet rs = ps.executeQuery()) {
                     if (rs.next()) {
                         String titleId = rs.getString("title_id");
-                        String titleDataJson = rs.getString("title_data");
                         long obtainedAt = rs.getLong("obtained_at");
-                        TitleData titleData = TitleData.fromJson(titleDataJson);
+                        TitleData titleData = titleColumns.read(rs, playerUuid, titleId);
                         return new PlayerTitleEntry(titleId, titleData, true, obtainedAt);
                     }
                 }
             }
             return null;
-        }, callback, null);
+        });
+    }
+
+    public void getCurrentTitle(UUID playerUuid, Consumer<PlayerTitleEntry> callback) {
+        callback(playerUuid, getCurrentTitle(playerUuid), null, callback);
     }
 
     /**
      * 异步添加玩家称号
      */
+    public CompletableFuture<Boolean> addPlayerTitle(UUID playerUuid, String titleId, TitleData titleData) {
+        return dbQueue.submitAsync("addPlayerTitle", playerUuid, conn ->
+                titleColumns.upsert(conn, Map.of(playerUuid, Map.of(titleId, titleData)), System.currentTimeMillis()) > 0);
+    }
+
     public void addPlayerTitle(UUID playerUuid, String titleId, TitleData titleData, Consumer<Boolean> callback) {
-        dbQueue.submit("addPlayerTitle", conn -> {
-            boolean isMySQL = plugin.getDatabaseManager().isMySQL();
-            String sql;
-            if (isMySQL) {
-                sql = "INSERT INTO player_titles (player_uuid, title_id, title_data, on_use, obtained_at) VALUES (?, ?, ?, FALSE, ?) " +
-                      "ON DUPLICATE KEY UPDATE title_data = VALUES(title_data)";
-            } else {
-                sql = "MERGE INTO player_titles (player_uuid, title_id, title_data, on_use, obtained_at) KEY(player_uuid, title_id) VALUES (?, ?, ?, FALSE, ?)";
-            }
-            try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                ps.setString(1, playerUuid.toString());
-                ps.setString(2, titleId);
-                ps.setString(3, titleData.toJson());
-                ps.setLong(4, System.currentTimeMillis());
-                int rows = ps.executeUpdate();
-                return rows > 0;
-            }
-        }, callback, null);
+        callback(playerUuid, addPlayerTitle(playerUuid, titleId, titleData), false, callback);
     }
 
     /**
-     * 异步设置玩家当前使用的称号
-     * 先清除该玩家所有称号的 on_use，再设置指定称号的 on_use 为 TRUE
-     * 使用事务确保原子性
+     * 异步批量写入同一玩家的多个称号（插入或更新），使用 JDBC 批处理
+     * @param callback 写入的称号数量
      */
-    public void setCurrentTitle(UUID playerUuid, String titleId, Consumer<Boolean> callback) {
-        dbQueue.submit("setCurrentTitle", conn -> {
-            try {
-                // 开启事务
-                conn.setAutoCommit(false);
+    public CompletableFuture<Integer> upsertPlayerTitles(UUID playerUuid, Map<String, TitleData> titles) {
+        return dbQueue.submitAsync("upsertPlayerTitles", playerUuid, conn ->
+                titleColumns.upsert(conn, Map.of(playerUuid, titles), System.currentTimeMillis()));
+    }
 
-                // 先清除所有称号的 on_use
-                String clearSql = "UPDATE player_titles SET on_use = FALSE WHERE player_uuid = ?";
-                try (PreparedStatement ps = conn.prepareStatement(clearSql)) {
-                    ps.setString(1, playerUuid.toString());
-                    ps.executeUpdate();
-                }
+    public void upsertPlayerTitles(UUID playerUuid, Map<String, TitleData> titles, Consumer<Integer> callback) {
+        callback(playerUuid, upsertPlayerTitles(playerUuid, titles), 0, callback);
+    }
 
-                // 再设置指定称号的 on_use 为 TRUE
-                String setSql = "UPDATE player_titles SET on_use = TRUE WHERE player_uuid = ? AND title_id = ?";
-                try (PreparedStatement ps = conn.prepareStatement(setSql)) {
-                    ps.setString(1, playerUuid.toString());
-                    ps.setString(2, titleId);
-                    int rows = ps.executeUpdate();
-
-                    if (rows > 0) {
-                        // 提交事务
-                        conn.commit();
-                        return true;
-                    } else {
-                        // 称号不存在，回滚
-                        conn.rollback();
-                        return false;
+    /**
+     * 批量导入玩家称号（BULK 优先级，不影响玩家操作）
+     * 一个事务内用 JDBC 批处理写入整批称号，并设置 onUse 标记的称号为当前称号
+     * @param titles playerUuid -> 称号条目，调用方应控制每批大小
+     * @param callback 写入的称号数量
+     */
+    public CompletableFuture<Integer> importPlayerTitles(Map<UUID, List<PlayerTitleEntry>> titles) {
+        return dbQueue.submitAsync("importPlayerTitles", null, DatabaseQueue.Priority.BULK, conn -> {
+            String currentSql = currentTitleUpsertSql(databaseManager.isMySQL());
+
+            int imported;
+            long now = System.currentTimeMillis();
+            Map<UUID, Map<String, TitleData>> rows = new HashMap<>();
+            for (Map.Entry<UUID, List<PlayerTitleEntry>> entry : titles.entrySet()) {
+                Map<String, TitleData> playerRows = new HashMap<>();
+                for (PlayerTitleEntry title : entry.getValue()) {
+                    playerRows.put(title.getTitleId(), title.getTitleData());
+                }
+                rows.put(entry.getKey(), playerRows);
+            }
+            try {
+                conn.setAutoCommit(false);
+                imported = titleColumns.upsert(conn, rows, now);
+                try (PreparedStatement current = conn.prepareStatement(currentSql)) {
+                    boolean hasCurrent = false;
+                    for (Map.Entry<UUID, List<PlayerTitleEntry>> entry : titles.entrySet()) {
+                        UUID uuid = entry.getKey();
+                        for (PlayerTitleEntry title : entry.getValue()) {
+                            if (title.isOnUse()) {
+                                databaseManager.setWrittenUuid(current, 1, uuid);
+                                current.setString(2, title.getTitleId());
+                                current.setLong(3, now);
+                                current.addBatch();
+                                hasCurrent = true;
+                            }
+                        }
+                    }
+                    if (hasCurrent) {
+                        current.executeBatch();
                     }
                 }
+                conn.commit();
             } catch (SQLException e) {
-                // 发生异常，回滚
                 try {
                     conn.rollback();
                 } catch (SQLException rollbackEx) {
@@ -148,65 +284,138 @@ public class TitleRepository {
                 }
                 throw e;
             } finally {
-                // 恢复自动提交
                 conn.setAutoCommit(true);
             }
-        }, callback, null);
+            return imported;
+        });
+    }
+
+    public void importPlayerTitles(Map<UUID, List<PlayerTitleEntry>> titles, Consumer<Integer> callback) {
+        callback(importPlayerTitles(titles), 0, callback);
+    }
+
+    /**
+     * 写入当前称号的 SQL（参数: player_uuid, title_id, updated_at）
+     */
+    private String currentTitleUpsertSql(boolean isMySQL) {
+        if (isMySQL) {
+            return "INSERT INTO player_current_title (player_uuid, title_id, updated_at) VALUES (?, ?, ?) " +
+                   "ON DUPLICATE KEY UPDATE title_id = VALUES(title_id), updated_at = VALUES(updated_at)";
+        }
+        return "MERGE INTO player_current_title (player_uuid, title_id, updated_at) KEY(player_uuid) VALUES (?, ?, ?)";
+    }
+
+    /**
+     * 异步设置玩家当前使用的称号
+     * 只写 player_current_title 的一行（玩家拥有该称号时才写入），与玩家拥有的称号数量无关
+     * @return 玩家不拥有该称号时为 false
+     */
+    public CompletableFuture<Boolean> setCurrentTitle(UUID playerUuid, String titleId) {
+        return dbQueue.submitAsync("setCurrentTitle", playerUuid, conn -> {
+            boolean isMySQL = databaseManager.isMySQL();
+            String sql;
+            if (isMySQL) {
+                sql = "INSERT INTO player_current_title (player_uuid, title_id, updated_at) " +
+                      "SELECT player_uuid, title_id, ? FROM player_titles WHERE player_uuid = ? AND title_id = ? " +
+                      "ON DUPLICATE KEY UPDATE title_id = VALUES(title_id), updated_at = VALUES(updated_at)";
+            } else {
+                sql = "MERGE INTO player_current_title (player_uuid, title_id, updated_at) KEY(player_uuid) " +
+                      "SELECT player_uuid, title_id, ? FROM player_titles WHERE player_uuid = ? AND title_id = ?";
+            }
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setLong(1, System.currentTimeMillis());
+                databaseManager.setWrittenUuid(ps, 2, playerUuid);
+                ps.setString(3, titleId);
+                return ps.executeUpdate() > 0;
+            }
+        });
+    }
+
+    public void setCurrentTitle(UUID playerUuid, String titleId, Consumer<Boolean> callback) {
+        callback(playerUuid, setCurrentTitle(playerUuid, titleId), false, callback);
     }
 
     /**
      * 异步清除玩家当前使用的称号
      */
-    public void clearCurrentTitle(UUID playerUuid, Consumer<Boolean> callback) {
-        dbQueue.submit("clearCurrentTitle", conn -> {
-            String sql = "UPDATE player_titles SET on_use = FALSE WHERE player_uuid = ?";
+    public CompletableFuture<Boolean> clearCurrentTitle(UUID playerUuid) {
+        return dbQueue.submitAsync("clearCurrentTitle", playerUuid, conn -> {
+            int rows;
+            String sql = "DELETE FROM player_current_title WHERE player_uuid = ?";
             try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                ps.setString(1, playerUuid.toString());
-                int rows = ps.executeUpdate();
-                return rows > 0;
+                databaseManager.setWrittenUuid(ps, 1, playerUuid);
+                rows = ps.executeUpdate();
             }
-        }, callback, null);
+            if (!databaseManager.getSchemaMigrator().isCompleted(CurrentTitleMigration.VERSION)) {
+                // 迁移完成前，未迁移的旧版标记也要清除，否则会在读取时重新生效
+                String legacySql = "UPDATE player_titles SET on_use = FALSE WHERE player_uuid = ? AND on_use = TRUE";
+                try (PreparedStatement ps = conn.prepareStatement(legacySql)) {
+                    databaseManager.setWrittenUuid(ps, 1, playerUuid);
+                    rows += ps.executeUpdate();
+                }
+            }
+            return rows > 0;
+        });
+    }
+
+    public void clearCurrentTitle(UUID playerUuid, Consumer<Boolean> callback) {
+        callback(playerUuid, clearCurrentTitle(playerUuid), false, callback);
     }
 
     /**
      * 异步检查玩家是否拥有指定称号
      */
-    public void hasTitle(UUID playerUuid, String titleId, Consumer<Boolean> callback) {
-        dbQueue.submit("hasTitle", conn -> {
+    public CompletableFuture<Boolean> hasTitle(UUID playerUuid, String titleId) {
+        return dbQueue.submitAsync("hasTitle", playerUuid, conn -> {
             String sql = "SELECT 1 FROM player_titles WHERE player_uuid = ? AND title_id = ?";
             try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                ps.setString(1, playerUuid.toString());
+                databaseManager.setUuid(ps, 1, playerUuid);
                 ps.setString(2, titleId);
                 try (ResultSet rs = ps.executeQuery()) {
                     return rs.next();
                 }
             }
-        }, callback, null);
+        });
+    }
+
+    public void hasTitle(UUID playerUuid, String titleId, Consumer<Boolean> callback) {
+        callback(playerUuid, hasTitle(playerUuid, titleId), false, callback);
     }
 
     /**
      * 异步删除玩家称号
      */
-    public void removePlayerTitle(UUID playerUuid, String titleId, Consumer<Boolean> callback) {
-        dbQueue.submit("removePlayerTitle", conn -> {
+    public CompletableFuture<Boolean> removePlayerTitle(UUID playerUuid, String titleId) {
+        return dbQueue.submitAsync("removePlayerTitle", playerUuid, conn -> {
+            // 删除的是当前称号时一并清除，之后重新获得该称号不会自动佩戴
+            String currentSql = "DELETE FROM player_current_title WHERE player_uuid = ? AND title_id = ?";
+            try (PreparedStatement ps = conn.prepareStatement(currentSql)) {
+                databaseManager.setWrittenUuid(ps, 1, playerUuid);
+                ps.setString(2, titleId);
+                ps.executeUpdate();
+            }
             String sql = "DELETE FROM player_titles WHERE player_uuid = ? AND title_id = ?";
             try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                ps.setString(1, playerUuid.toString());
+                databaseManager.setWrittenUuid(ps, 1, playerUuid);
                 ps.setString(2, titleId);
                 int rows = ps.executeUpdate();
                 return rows > 0;
             }
-        }, callback, null);
+        });
+    }
+
+    public void removePlayerTitle(UUID playerUuid, String titleId, Consumer<Boolean> callback) {
+        callback(playerUuid, removePlayerTitle(playerUuid, titleId), false, callback);
     }
 
     /**
      * 异步获取玩家拥有的称号数量
      */
-    public void getTitleCount(UUID playerUuid, Consumer<Integer> callback) {
-        dbQueue.submit("getTitleCount", conn -> {
+    public CompletableFuture<Integer> getTitleCount(UUID playerUuid) {
+        return dbQueue.submitAsync("getTitleCount", playerUuid, conn -> {
             String sql = "SELECT COUNT(*) FROM player_titles WHERE player_uuid = ?";
             try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                ps.setString(1, playerUuid.toString());
+                databaseManager.setUuid(ps, 1, playerUuid);
                 try (ResultSet rs = ps.executeQuery()) {
                     if (rs.next()) {
                         return rs.getInt(1);
@@ -214,23 +423,31 @@ public class TitleRepository {
                 }
             }
             return 0;
-        }, callback, null);
+        });
+    }
+
+    public void getTitleCount(UUID playerUuid, Consumer<Integer> callback) {
+        callback(playerUuid, getTitleCount(playerUuid), 0, callback);
     }
 
     /**
      * 异步检查称号ID是否已存在（精确匹配）
      */
-    public void titleIdExists(UUID playerUuid, String titleId, Consumer<Boolean> callback) {
-        dbQueue.submit("titleIdExists", conn -> {
+    public CompletableFuture<Boolean> titleIdExists(UUID playerUuid, String titleId) {
+        return dbQueue.submitAsync("titleIdExists", playerUuid, conn -> {
             String sql = "SELECT 1 FROM player_titles WHERE player_uuid = ? AND title_id = ?";
             try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                ps.setString(1, playerUuid.toString());
+                databaseManager.setUuid(ps, 1, playerUuid);
                 ps.setString(2, titleId);
                 try (ResultSet rs = ps.executeQuery()) {
                     return rs.next();
                 }
             }
-        }, callback, null);
+        });
+    }
+
+    public void titleIdExists(UUID playerUuid, String titleId, Consumer<Boolean> callback) {
+        callback(playerUuid, titleIdExists(playerUuid, titleId), true, callback);
     }
 
     // ==================== 预设称号操作 ====================
@@ -238,8 +455,8 @@ public class TitleRepository {
     /**
      * 异步获取所有预设称号
      */
-    public void getAllPresetTitles(Consumer<Map<String, TitleData>> callback) {
-        dbQueue.submit("getAllPresetTitles", conn -> {
+    public CompletableFuture<Map<String, TitleData>> getAllPresetTitles() {
+        return dbQueue.submitAsync("getAllPresetTitles", null, conn -> {
             Map<String, TitleData> titles = new HashMap<>();
             String sql = "SELECT id, title_data FROM preset_titles WHERE enabled = TRUE";
             try (PreparedStatement ps = conn.prepareStatement(sql);
@@ -253,14 +470,18 @@ public class TitleRepository {
                 }
             }
             return titles;
-        }, callback, null);
+        });
+    }
+
+    public void getAllPresetTitles(Consumer<Map<String, TitleData>> callback) {
+        callback(getAllPresetTitles(), Map.of(), callback);
     }
 
     /**
      * 异步获取单个预设称号
      */
-    public void getPresetTitle(String titleId, Consumer<TitleData> callback) {
-        dbQueue.submit("getPresetTitle", conn -> {
+    public CompletableFuture<TitleData> getPresetTitle(String titleId) {
+        return dbQueue.submitAsync("getPresetTitle", titleId, conn -> {
             String sql = "SELECT title_data FROM preset_titles WHERE id = ? AND enabled = TRUE";
             try (PreparedStatement ps = conn.prepareStatement(sql)) {
                 ps.setString(1, titleId);
@@ -274,15 +495,19 @@ public class TitleRepository {
                 }
             }
             return null;
-        }, callback, null);
+        });
+    }
+
+    public void getPresetTitle(String titleId, Consumer<TitleData> callback) {
+        callback(getPresetTitle(titleId), null, callback);
     }
 
     /**
      * 异步保存预设称号（插入或更新）
      */
-    public void savePresetTitle(String titleId, TitleData titleData, Consumer<Boolean> callback) {
-        dbQueue.submit("savePresetTitle", conn -> {
-            boolean isMySQL = plugin.getDatabaseManager().isMySQL();
+    public CompletableFuture<Boolean> savePresetTitle(String titleId, TitleData titleData) {
+        return dbQueue.submitAsync("savePresetTitle", titleId, conn -> {
+            boolean isMySQL = databaseManager.isMySQL();
             String sql;
             if (isMySQL) {
                 sql = "INSERT INTO preset_titles (id, title_data, enabled) VALUES (?, ?, TRUE) " +
@@ -296,35 +521,78 @@ public class TitleRepository {
                 int rows = ps.executeUpdate();
                 return rows > 0;
             }
-        }, callback, null);
+        });
+    }
+
+    public void savePresetTitle(String titleId, TitleData titleData, Consumer<Boolean> callback) {
+        callback(savePresetTitle(titleId, titleData), false, callback);
     }
 
     /**
      * 异步删除预设称号
      */
-    public void deletePresetTitle(String titleId, Consumer<Boolean> callback) {
-        dbQueue.submit("deletePresetTitle", conn -> {
+    public CompletableFuture<Boolean> deletePresetTitle(String titleId) {
+        return dbQueue.submitAsync("deletePresetTitle", titleId, conn -> {
             String sql = "DELETE FROM preset_titles WHERE id = ?";
             try (PreparedStatement ps = conn.prepareStatement(sql)) {
                 ps.setString(1, titleId);
                 int rows = ps.executeUpdate();
                 return rows > 0;
             }
-        }, callback, null);
+        });
+    }
+
+    public void deletePresetTitle(String titleId, Consumer<Boolean> callback) {
+        callback(deletePresetTitle(titleId), false, callback);
     }
 
     /**
      * 异步禁用预设称号
      */
-    public void disablePresetTitle(String titleId, Consumer<Boolean> callback) {
-        dbQueue.submit("disablePresetTitle", conn -> {
+    public CompletableFuture<Boolean> disablePresetTitle(String titleId) {
+        return dbQueue.submitAsync("disablePresetTitle", titleId, conn -> {
             String sql = "UPDATE preset_titles SET enabled = FALSE WHERE id = ?";
             try (PreparedStatement ps = conn.prepareStatement(sql)) {
                 ps.setString(1, titleId);
                 int rows = ps.executeUpdate();
                 return rows > 0;
             }
-        }, callback, null);
+        });
+    }
+
+    public void disablePresetTitle(String titleId, Consumer<Boolean> callback) {
+        callback(disablePresetTitle(titleId), false, callback);
+    }
+
+    /**
+     * 在全局区域线程执行回调
+     */
+    private <T> void callback(CompletableFuture<T> future, T failureValue, Consumer<T> callback) {
+        callback(null, future, failureValue, callback);
+    }
+
+    /**
+     * 回调经回调分发器执行：playerUuid 不为 null 时回到该玩家所在区域线程，否则回到全局区域线程
+     * 操作失败、被拒绝或被丢弃时记录日志并以 failureValue 回调，调用方总能收到结果
+     */
+    private <T> void callback(UUID playerUuid, CompletableFuture<T> future, T failureValue, Consumer<T> callback) {
+        if (callback == null) {
+            future.exceptionally(e -> {
+                plugin.getLogger().warning("数据库操作未完成: " + e.getMessage());
+                return null;
+            });
+            return;
+        }
+        future.whenCompleteAsync((result, error) -> {
+            if (error != null) {
+                plugin.getLogger().warning("数据库操作未完成: " + error.getMessage());
+            }
+            try {
+                callback.accept(error != null ? failureValue : result);
+            } catch (Exception e) {
+                plugin.getLogger().warning("数据库回调执行失败: " + e.getMessage());
+            }
+        }, plugin.getCallbackDispatcher().player(playerUuid));
     }
 
     // ==================== 数据模型 ====================
@@ -362,17 +630,38 @@ public class TitleRepository {
         }
     }
 
+    /**
+     * 玩家数据（称号与边框的合并加载结果）
+     */
+    public static class PlayerData {
+        private final List<PlayerTitleEntry> titles;
+        private final Set<String> bracketIds;
+
+        public PlayerData(List<PlayerTitleEntry> titles, Set<String> bracketIds) {
+            this.titles = titles;
+            this.bracketIds = bracketIds;
+        }
+
+        public List<PlayerTitleEntry> getTitles() {
+            return titles;
+        }
+
+        public Set<String> getBracketIds() {
+            return bracketIds;
+        }
+    }
+
     // ==================== 玩家边框操作 ====================
 
     /**
      * 异步获取玩家拥有的边框ID列表
      */
-    public void getPlayerBrackets(UUID playerUuid, Consumer<Set<String>> callback) {
-        dbQueue.submit("getPlayerBrackets", conn -> {
+    public CompletableFuture<Set<String>> getPlayerBrackets(UUID playerUuid) {
+        return dbQueue.submitAsync("getPlayerBrackets", playerUuid, conn -> {
             Set<String> bracketIds = new HashSet<>();
             String sql = "SELECT bracket_id FROM player_brackets WHERE player_uuid = ?";
             try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                ps.setString(1, playerUuid.toString());
+                databaseManager.setUuid(ps, 1, playerUuid);
                 try (ResultSet rs = ps.executeQuery()) {
                     while (rs.next()) {
                         bracketIds.add(rs.getString("bracket_id"));
@@ -380,15 +669,19 @@ public class TitleRepository {
                 }
             }
             return bracketIds;
-        }, callback, null);
+        });
+    }
+
+    public void getPlayerBrackets(UUID playerUuid, Consumer<Set<String>> callback) {
+        callback(playerUuid, getPlayerBrackets(playerUuid), Set.of(), callback);
     }
 
     /**
      * 异步添加玩家边框
      */
-    public void addPlayerBracket(UUID playerUuid, String bracketId, Consumer<Boolean> callback) {
-        dbQueue.submit("addPlayerBracket", conn -> {
-            boolean isMySQL = plugin.getDatabaseManager().isMySQL();
+    public CompletableFuture<Boolean> addPlayerBracket(UUID playerUuid, String bracketId) {
+        return dbQueue.submitAsync("addPlayerBracket", playerUuid, conn -> {
+            boolean isMySQL = databaseManager.isMySQL();
             String sql;
             if (isMySQL) {
                 sql = "INSERT IGNORE INTO player_brackets (player_uuid, bracket_id, obtained_at) VALUES (?, ?, ?)";
@@ -396,43 +689,55 @@ public class TitleRepository {
                 sql = "MERGE INTO player_brackets (player_uuid, bracket_id, obtained_at) KEY(player_uuid, bracket_id) VALUES (?, ?, ?)";
             }
             try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                ps.setString(1, playerUuid.toString());
+                databaseManager.setWrittenUuid(ps, 1, playerUuid);
                 ps.setString(2, bracketId);
                 ps.setLong(3, System.currentTimeMillis());
                 int rows = ps.executeUpdate();
                 return rows > 0;
             }
-        }, callback, null);
+        });
+    }
+
+    public void addPlayerBracket(UUID playerUuid, String bracketId, Consumer<Boolean> callback) {
+        callback(playerUuid, addPlayerBracket(playerUuid, bracketId), false, callback);
     }
 
     /**
      * 异步移除玩家边框
      */
-    public void removePlayerBracket(UUID playerUuid, String bracketId, Consumer<Boolean> callback) {
-        dbQueue.submit("removePlayerBracket", conn -> {
+    public CompletableFuture<Boolean> removePlayerBracket(UUID playerUuid, String bracketId) {
+        return dbQueue.submitAsync("removePlayerBracket", playerUuid, conn -> {
             String sql = "DELETE FROM player_brackets WHERE player_uuid = ? AND bracket_id = ?";
             try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                ps.setString(1, playerUuid.toString());
+                databaseManager.setWrittenUuid(ps, 1, playerUuid);
                 ps.setString(2, bracketId);
                 int rows = ps.executeUpdate();
                 return rows > 0;
             }
-        }, callback, null);
+        });
+    }
+
+    public void removePlayerBracket(UUID playerUuid, String bracketId, Consumer<Boolean> callback) {
+        callback(playerUuid, removePlayerBracket(playerUuid, bracketId), false, callback);
     }
 
     /**
      * 异步检查玩家是否拥有边框
      */
-    public void hasBracket(UUID playerUuid, String bracketId, Consumer<Boolean> callback) {
-        dbQueue.submit("hasBracket", conn -> {
+    public CompletableFuture<Boolean> hasBracket(UUID playerUuid, String bracketId) {
+        return dbQueue.submitAsync("hasBracket", playerUuid, conn -> {
             String sql = "SELECT 1 FROM player_brackets WHERE player_uuid = ? AND bracket_id = ?";
             try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                ps.setString(1, playerUuid.toString());
+                databaseManager.setUuid(ps, 1, playerUuid);
                 ps.setString(2, bracketId);
                 try (ResultSet rs = ps.executeQuery()) {
                     return rs.next();
                 }
             }
-        }, callback, null);
+        });
+    }
+
+    public void hasBracket(UUID playerUuid, String bracketId, Consumer<Boolean> callback) {
+        callback(playerUuid, hasBracket(playerUuid, bracketId), false, callback);
     }
 }
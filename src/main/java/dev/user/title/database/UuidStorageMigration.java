@@ -0,0 +1,279 @@
+package dev.user.title.database;
+
+import dev.user.title.SimpleTitlePlugin;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * v2: player_uuid 列从 VARCHAR(36) 迁移到二进制格式（MySQL BINARY(16)，H2 UUID）
+ * 服务器保持运行，迁移过程：
+ * 1. 创建新格式的副本表（后缀 _bin）并建好索引，批量任务按玩家分页复制数据
+ * 2. 复制期间照常读写旧表，记录被写入的玩家，复制结束后逐个重新同步
+ * 3. 暂停所有数据库通道，同步剩余玩家，把旧表改名为 _legacy 备份、新表换成原名，切换读写格式
+ * 复制期间的写入记录只在内存中，中断后下次启动从头重新复制；旧表备份确认无误后可手动删除
+ *
+ * 写入记录只覆盖本服务器，其他服务器的写入无法同步，切换后它们也仍按旧格式读写。
+ * 因此迁移通过 schema_version 认领，同一时间只有一台服务器执行；MySQL 可能被多台服务器共用，
+ * 需要停止其他服务器后在配置中显式开启（database.uuid-migration.allow-mysql）
+ */
+public class UuidStorageMigration implements SchemaMigration {
+
+    public static final int VERSION = 2;
+
+    // 副本表、备份表后缀
+    static final String TARGET_SUFFIX = "_bin";
+    static final String BACKUP_SUFFIX = "_legacy";
+
+    // 每批复制的玩家数
+    private static final int BATCH_PLAYERS = 500;
+
+    // 各表除 player_uuid 外的列
+    private static final String[][] TABLE_COLUMNS = {
+            {"player_titles", "title_id, on_use, obtained_at, " + TitleColumns.WRITE_COLUMNS},
+            {"player_brackets", "bracket_id, obtained_at"},
+            {"player_current_title", "title_id, updated_at"}
+    };
+
+    private final SimpleTitlePlugin plugin;
+    private final DatabaseManager databaseManager;
+
+    // 开始复制的时间
+    private long startTime;
+
+    public UuidStorageMigration(SimpleTitlePlugin plugin, DatabaseManager databaseManager) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+    }
+
+    @Override
+    public int getVersion() {
+        return VERSION;
+    }
+
+    @Override
+    public String getDescription() {
+        return "player_uuid 改为二进制存储";
+    }
+
+    @Override
+    public boolean isResumable() {
+        return false;
+    }
+
+    @Override
+    public DatabaseQueue.Priority getPriority() {
+        return DatabaseQueue.Priority.BULK;
+    }
+
+    @Override
+    public String getBlockedReason() {
+        if (databaseManager.isMySQL() && !plugin.getConfigManager().isUuidMigrationAllowMysql()) {
+            return "player_uuid 仍以字符串存储，不会转换为二进制。MySQL 可能被多台服务器共用，"
+                    + "请停止其他服务器后在 config.yml 中设置 database.uuid-migration.allow-mysql: true 并重启";
+        }
+        return null;
+    }
+
+    /**
+     * 游标格式为 "表序号:该表已复制的最后一个 player_uuid"，首批创建副本表
+     */
+    @Override
+    public String migrateBatch(Connection conn, String cursor) throws SQLException {
+        if (databaseManager.isBinaryUuid()) {
+            return null;
+        }
+
+        // 每批续期认领，其他服务器正在执行时中止
+        databaseManager.getSchemaMigrator().claim(conn, VERSION);
+
+        int tableIndex;
+        String lastUuid;
+        if (cursor == null) {
+            prepareTargetTables(conn);
+            databaseManager.trackWrites(true);
+            startTime = System.currentTimeMillis();
+            tableIndex = 0;
+            lastUuid = "";
+        } else {
+            int separator = cursor.indexOf(':');
+            tableIndex = Integer.parseInt(cursor.substring(0, separator));
+            lastUuid = cursor.substring(separator + 1);
+        }
+
+        // 当前表复制完时进入下一张表；所有表复制完时结束回填，进入收尾
+        while (tableIndex < TABLE_COLUMNS.length) {
+            String upper = copyBatch(conn, TABLE_COLUMNS[tableIndex][0], TABLE_COLUMNS[tableIndex][1], lastUuid);
+            if (upper != null) {
+                return tableIndex + ":" + upper;
+            }
+            tableIndex++;
+            lastUuid = "";
+        }
+        return null;
+    }
+
+    /**
+     * 收尾：重新同步复制期间被写入的玩家，然后暂停所有通道切换表
+     */
+    @Override
+    public CompletableFuture<Void> complete(DatabaseQueue queue) {
+        if (databaseManager.isBinaryUuid()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return resyncWrittenPlayers(queue)
+                .thenCompose(v -> queue.<Void>submitExclusive("uuidMigration.cutover", conn -> {
+                    cutover(conn);
+                    return null;
+                }))
+                .thenRun(() -> {
+                    databaseManager.trackWrites(false);
+                    plugin.getLogger().info("player_uuid 已切换为二进制存储，复制与切换共耗时 "
+                            + (System.currentTimeMillis() - startTime) + "ms；旧表已保留为 *" + BACKUP_SUFFIX
+                            + "，确认无误后可手动删除");
+                });
+    }
+
+    @Override
+    public void onFailed() {
+        databaseManager.trackWrites(false);
+    }
+
+    /**
+     * 重新创建空的副本表及其索引（上次中断留下的副本直接丢弃）
+     */
+    private void prepareTargetTables(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String table : DatabaseManager.PLAYER_TABLES) {
+                stmt.execute("DROP TABLE IF EXISTS " + table + TARGET_SUFFIX);
+            }
+            databaseManager.createPlayerTables(stmt, TARGET_SUFFIX, databaseManager.uuidColumnType(true));
+            databaseManager.createIndexes(stmt, TARGET_SUFFIX);
+        }
+    }
+
+    /**
+     * 复制 player_uuid 大于 cursor 的一批玩家
+     * @return 本批最后一个玩家（按字符串顺序）；没有剩余玩家时返回 null
+     */
+    private String copyBatch(Connection conn, String table, String columns, String cursor) throws SQLException {
+        String upper = null;
+        String pageSql = "SELECT MAX(player_uuid) FROM (SELECT player_uuid FROM " + table +
+                         " WHERE player_uuid > ? ORDER BY player_uuid LIMIT " + BATCH_PLAYERS + ") page";
+        try (PreparedStatement ps = conn.prepareStatement(pageSql)) {
+            ps.setString(1, cursor);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    upper = rs.getString(1);
+                }
+            }
+        }
+        if (upper == null) {
+            return null;
+        }
+
+        String copySql = "INSERT INTO " + table + TARGET_SUFFIX + " (player_uuid, " + columns + ") " +
+                         "SELECT " + toBinary("player_uuid") + ", " + columns + " FROM " + table +
+                         " WHERE player_uuid > ? AND player_uuid <= ?";
+        try (PreparedStatement ps = conn.prepareStatement(copySql)) {
+            ps.setString(1, cursor);
+            ps.setString(2, upper);
+            ps.executeUpdate();
+        }
+        return upper;
+    }
+
+    /**
+     * 复制结束后重新同步期间被写入的玩家（不暂停通道，切换时只需处理剩下的少量玩家）
+     * 每个玩家的同步提交到该玩家的通道上，不会与该玩家正在执行的写入交错
+     */
+    private CompletableFuture<Void> resyncWrittenPlayers(DatabaseQueue queue) {
+        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+        for (UUID uuid : databaseManager.drainWrittenPlayers()) {
+            chain = chain.thenCompose(v -> queue.<Void>submitEssential("uuidMigration.resync", uuid,
+                    DatabaseQueue.Priority.BULK, conn -> {
+                resync(conn, Set.of(uuid));
+                return null;
+            }));
+        }
+        return chain;
+    }
+
+    /**
+     * 切换（所有通道已暂停）：同步剩余玩家，交换表名，切换读写格式
+     */
+    private void cutover(Connection conn) throws SQLException {
+        // 确认认领仍属于本服务器
+        databaseManager.getSchemaMigrator().claim(conn, VERSION);
+        resync(conn, databaseManager.drainWrittenPlayers());
+
+        try (Statement stmt = conn.createStatement()) {
+            if (databaseManager.isMySQL()) {
+                // MySQL 的多表 RENAME 是原子的
+                StringBuilder sql = new StringBuilder("RENAME TABLE ");
+                for (String table : DatabaseManager.PLAYER_TABLES) {
+                    if (sql.length() > "RENAME TABLE ".length()) {
+                        sql.append(", ");
+                    }
+                    sql.append(table).append(" TO ").append(table).append(BACKUP_SUFFIX).append(", ")
+                       .append(table).append(TARGET_SUFFIX).append(" TO ").append(table);
+                }
+                stmt.execute(sql.toString());
+            } else {
+                // H2 的索引名全局唯一：旧表索引改为备份名，副本表索引换成原名
+                for (String[] index : DatabaseManager.PLAYER_INDEXES) {
+                    stmt.execute("ALTER INDEX IF EXISTS " + index[0] + " RENAME TO " + index[0] + BACKUP_SUFFIX);
+                    stmt.execute("ALTER INDEX IF EXISTS " + index[0] + TARGET_SUFFIX + " RENAME TO " + index[0]);
+                }
+                for (String table : DatabaseManager.PLAYER_TABLES) {
+                    stmt.execute("ALTER TABLE " + table + " RENAME TO " + table + BACKUP_SUFFIX);
+                    stmt.execute("ALTER TABLE " + table + TARGET_SUFFIX + " RENAME TO " + table);
+                }
+            }
+        }
+        databaseManager.useBinaryUuid();
+    }
+
+    /**
+     * 用旧表中的数据覆盖副本表中这些玩家的数据
+     */
+    private void resync(Connection conn, Set<UUID> players) throws SQLException {
+        if (players.isEmpty()) {
+            return;
+        }
+        for (String[] table : TABLE_COLUMNS) {
+            String target = table[0] + TARGET_SUFFIX;
+            String deleteSql = "DELETE FROM " + target + " WHERE player_uuid = " + toBinary("?");
+            String insertSql = "INSERT INTO " + target + " (player_uuid, " + table[1] + ") " +
+                               "SELECT " + toBinary("player_uuid") + ", " + table[1] + " FROM " + table[0] +
+                               " WHERE player_uuid = ?";
+            try (PreparedStatement delete = conn.prepareStatement(deleteSql);
+                 PreparedStatement insert = conn.prepareStatement(insertSql)) {
+                for (UUID uuid : players) {
+                    delete.setString(1, uuid.toString());
+                    delete.addBatch();
+                    insert.setString(1, uuid.toString());
+                    insert.addBatch();
+                }
+                delete.executeBatch();
+                insert.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * 字符串 UUID 转二进制的 SQL 表达式
+     */
+    private String toBinary(String expression) {
+        if (databaseManager.isMySQL()) {
+            return "UNHEX(REPLACE(" + expression + ", '-', ''))";
+        }
+        return "CAST(" + expression + " AS UUID)";
+    }
+}
@@ -73,9 +73,9 @@ public class EconomyManager {
                 default -> throw new IllegalStateException("未知任务类型: " + task.getType());
             }
 
-            // 回调到主线程
+            // 回调到玩家所在区域线程（经回调分发器按 tick 合并）
             if (task.getCallback() != null) {
-                plugin.getServer().getGlobalRegionScheduler().execute(plugin, () -> {
+                plugin.getCallbackDispatcher().dispatch(task.getPlayer().getUniqueId(), () -> {
                     try {
                         ((Consumer<T>) task.getCallback()).accept(result);
                     } catch (Exception e) {
@@ -87,9 +87,8 @@ public class EconomyManager {
             plugin.getLogger().warning("经济操作失败 [" + task.getType() + "]: " + e.getMessage());
 
             if (task.getErrorCallback() != null) {
-                plugin.getServer().getGlobalRegionScheduler().execute(plugin, () -> {
-                    task.getErrorCallback().accept(e);
-                });
+                plugin.getCallbackDispatcher().dispatch(task.getPlayer().getUniqueId(),
+                        () -> task.getErrorCallback().accept(e));
             }
         }
     }
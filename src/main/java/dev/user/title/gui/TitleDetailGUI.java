@@ -65,7 +65,7 @@ public class TitleDetailGUI extends AbstractGUI {
             // 使用按钮
             ItemStack useBtn = createItem(Material.LIME_DYE, "§a使用", "§7点击使用此称号");
             setItem(11, useBtn, p -> {
-                plugin.getTitleManager().setCurrentTitle(p.getUniqueId(), titleId, success -> {
+                plugin.getTitleManager().setCurrentTitle(p, titleId, success -> {
                     if (success) {
                         MessageUtil.send(p, plugin.getConfigManager().getMessage("use-success", "title", titleData.getFormatted()));
                     } else {
@@ -141,17 +141,8 @@ public class TitleDetailGUI extends AbstractGUI {
      * 删除称号
      */
     private void deleteTitle(Player player) {
-        plugin.getTitleRepository().removePlayerTitle(player.getUniqueId(), titleId, success -> {
+        plugin.getTitleManager().removePlayerTitle(player.getUniqueId(), titleId, success -> {
             if (success) {
-                // 从缓存中移除
-                plugin.getTitleCacheManager().removePlayerTitle(player.getUniqueId(), titleId);
-
-                // 如果删除的是当前使用的称号，清除当前使用
-                String currentTitleId = plugin.getTitleCacheManager().getCurrentTitleId(player.getUniqueId());
-                if (titleId.equals(currentTitleId)) {
-                    plugin.getTitleCacheManager().clearCurrentTitle(player.getUniqueId());
-                }
-
                 MessageUtil.send(player, plugin.getConfigManager().getMessage("delete-success", "title", titleData.getFormatted()));
             } else {
                 MessageUtil.send(player, plugin.getConfigManager().getMessage("delete-failed"));
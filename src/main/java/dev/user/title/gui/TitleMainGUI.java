@@ -33,7 +33,13 @@ public class TitleMainGUI extends AbstractGUI {
         this.page = page;
         this.playerTitles = plugin.getTitleManager().getPlayerTitles(player.getUniqueId());
         this.currentTitleId = plugin.getTitleCacheManager().getCurrentTitleId(player.getUniqueId());
-        this.titleIds = new ArrayList<>(playerTitles.keySet());
+        // 跳过无法解码的称号
+        this.titleIds = new ArrayList<>();
+        for (Map.Entry<String, TitleData> entry : playerTitles.entrySet()) {
+            if (entry.getValue().isUsable()) {
+                titleIds.add(entry.getKey());
+            }
+        }
     }
 
     @Override
@@ -196,10 +202,10 @@ public class TitleMainGUI extends AbstractGUI {
     }
 
     public static void open(SimpleTitlePlugin plugin, Player player, int page) {
-        // 数据已在缓存中，直接在主线程打开
-        player.getScheduler().execute(plugin, () -> {
+        // 等待称号数据加载完成，在玩家所在区域线程打开
+        plugin.getTitleManager().whenLoaded(player, state -> {
             TitleMainGUI gui = new TitleMainGUI(plugin, player, page);
             gui.open();
-        }, () -> {}, 0L);
+        });
     }
 }
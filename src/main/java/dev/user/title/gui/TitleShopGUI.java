@@ -205,9 +205,10 @@ public class TitleShopGUI extends AbstractGUI {
      * 静态打开方法
      */
     public static void open(SimpleTitlePlugin plugin, Player player, int page) {
-        player.getScheduler().execute(plugin, () -> {
+        // 等待称号数据加载完成，在玩家所在区域线程打开
+        plugin.getTitleManager().whenLoaded(player, state -> {
             TitleShopGUI gui = new TitleShopGUI(plugin, player, page);
             gui.open();
-        }, () -> {}, 0L);
+        });
     }
 }
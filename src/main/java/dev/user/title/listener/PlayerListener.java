@@ -14,7 +14,9 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.AsyncPlayerChatEvent;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 
 import java.util.Arrays;
@@ -30,25 +32,43 @@ public class PlayerListener implements Listener {
         this.plugin = plugin;
     }
 
+    /**
+     * 登录前预加载称号与边框数据（异步线程）
+     * MONITOR 优先级：其他插件已决定是否允许登录
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+        plugin.getPlayerDataLoader().prefetch(event.getUniqueId());
+    }
+
+    /**
+     * 登录被拒绝（白名单、封禁、满员等）时丢弃预加载的数据
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerLogin(PlayerLoginEvent event) {
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED) {
+            plugin.getPlayerDataLoader().discardPrefetch(event.getPlayer().getUniqueId());
+        }
+    }
+
     @EventHandler(priority = EventPriority.NORMAL)
     public void onPlayerJoin(PlayerJoinEvent event) {
-        // 加载玩家称号数据到缓存
-        plugin.getTitleManager().onPlayerJoin(event.getPlayer().getUniqueId());
-        // 加载玩家边框数据到缓存
-        plugin.getBracketManager().loadPlayerBrackets(event.getPlayer().getUniqueId());
+        // 接管预加载的称号与边框数据（未预加载时开始加载）
+        plugin.getPlayerDataLoader().onPlayerJoin(event.getPlayer().getUniqueId());
     }
 
     @EventHandler(priority = EventPriority.NORMAL)
     public void onPlayerQuit(PlayerQuitEvent event) {
         Player player = event.getPlayer();
-        // 清理玩家缓存
+        // 写入未写入的称号修改
         plugin.getTitleManager().onPlayerQuit(player.getUniqueId());
-        // 清理边框缓存
-        plugin.getBracketManager().unloadPlayerBrackets(player.getUniqueId());
+        // 称号、边框缓存与动态称号追踪在退出宽限时间后卸载
+        plugin.getPlayerDataLoader().onPlayerQuit(player.getUniqueId());
         // 清理会话
         plugin.getCustomTitleSessionManager().removeSession(player.getUniqueId());
-        // 清理动态称号追踪
-        plugin.getDynamicTitleManager().onPlayerQuit(player.getUniqueId());
     }
 
     @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = false)
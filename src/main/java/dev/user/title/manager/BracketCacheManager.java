@@ -6,21 +6,27 @@ import dev.user.title.database.TitleRepository;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 边框缓存管理器
+ * 玩家拥有的边框以位图保存（按 BracketOrdinals 分配的序号），每个玩家只占几个 long；
+ * 位图不可修改，变更时整体替换
  */
 public class BracketCacheManager {
 
     private final SimpleTitlePlugin plugin;
     private final TitleRepository repository;
 
-    // 玩家拥有的边框缓存: playerUuid -> Set<bracketId>
-    private final Map<UUID, Set<String>> playerBracketsCache = new ConcurrentHashMap<>();
+    // 边框序号表
+    private final BracketOrdinals ordinals = new BracketOrdinals();
 
-    // 正在加载的玩家集合
-    private final Set<UUID> loadingPlayers = ConcurrentHashMap.newKeySet();
+    // 玩家拥有的边框缓存: playerUuid -> 边框位图
+    private final Map<UUID, long[]> playerBracketsCache = new ConcurrentHashMap<>();
+
+    // 正在加载的玩家: playerUuid -> 加载完成的 Future
+    private final Map<UUID, CompletableFuture<Void>> loadingPlayers = new ConcurrentHashMap<>();
 
     public BracketCacheManager(SimpleTitlePlugin plugin) {
         this.plugin = plugin;
@@ -31,11 +37,14 @@ public class BracketCacheManager {
      * 加载玩家边框数据到缓存
      */
     public void loadPlayerBrackets(UUID playerUuid) {
-        repository.getPlayerBrackets(playerUuid, bracketIds -> {
-            playerBracketsCache.put(playerUuid, ConcurrentHashMap.newKeySet());
-            playerBracketsCache.get(playerUuid).addAll(bracketIds);
-            loadingPlayers.remove(playerUuid);
-        });
+        triggerAsyncLoad(playerUuid);
+    }
+
+    /**
+     * 加载玩家边框数据，返回加载完成的 Future
+     */
+    public CompletableFuture<Void> load(UUID playerUuid) {
+        return triggerAsyncLoad(playerUuid);
     }
 
     /**
@@ -43,42 +52,60 @@ public class BracketCacheManager {
      */
     public void unloadPlayer(UUID playerUuid) {
         playerBracketsCache.remove(playerUuid);
-        loadingPlayers.remove(playerUuid);
+        CompletableFuture<Void> pending = loadingPlayers.remove(playerUuid);
+        if (pending != null) {
+            pending.complete(null);
+        }
     }
 
     /**
      * 检查玩家是否拥有边框（仅检查缓存）
      */
     public boolean hasBracket(UUID playerUuid, String bracketId) {
-        Set<String> brackets = playerBracketsCache.get(playerUuid);
-        return brackets != null && brackets.contains(bracketId);
+        return hasBracket(playerUuid, ordinals.find(bracketId));
     }
 
     /**
-     * 获取玩家拥有的边框ID集合
+     * 按序号检查玩家是否拥有边框（仅检查缓存）
      */
-    public Set<String> getOwnedBracketIds(UUID playerUuid) {
-        Set<String> cached = playerBracketsCache.get(playerUuid);
-        return cached != null ? cached : Set.of();
+    boolean hasBracket(UUID playerUuid, int ordinal) {
+        long[] bits = playerBracketsCache.get(playerUuid);
+        return bits != null && BracketOrdinals.contains(bits, ordinal);
+    }
+
+    /**
+     * 获取玩家拥有的边框位图（不可修改，未加载时为空位图）
+     */
+    long[] getOwnedBits(UUID playerUuid) {
+        long[] bits = playerBracketsCache.get(playerUuid);
+        return bits != null ? bits : BracketOrdinals.emptyBits();
+    }
+
+    /**
+     * 边框序号表
+     */
+    BracketOrdinals getOrdinals() {
+        return ordinals;
     }
 
     /**
      * 添加边框到缓存
      */
     public void addBracket(UUID playerUuid, String bracketId) {
-        Set<String> brackets = playerBracketsCache.computeIfAbsent(playerUuid,
-                k -> ConcurrentHashMap.newKeySet());
-        brackets.add(bracketId);
+        int ordinal = ordinals.assign(bracketId);
+        playerBracketsCache.compute(playerUuid, (uuid, bits) ->
+                BracketOrdinals.with(bits != null ? bits : BracketOrdinals.emptyBits(), ordinal));
     }
 
     /**
      * 从缓存移除边框
      */
     public void removeBracket(UUID playerUuid, String bracketId) {
-        Set<String> brackets = playerBracketsCache.get(playerUuid);
-        if (brackets != null) {
-            brackets.remove(bracketId);
+        int ordinal = ordinals.find(bracketId);
+        if (ordinal < 0) {
+            return;
         }
+        playerBracketsCache.computeIfPresent(playerUuid, (uuid, bits) -> BracketOrdinals.without(bits, ordinal));
     }
 
     /**
@@ -91,20 +118,68 @@ public class BracketCacheManager {
     /**
      * 触发异步加载（如果尚未加载）
      */
-    public void triggerAsyncLoad(UUID playerUuid) {
-        if (loadingPlayers.contains(playerUuid) || playerBracketsCache.containsKey(playerUuid)) {
-            return;
+    public CompletableFuture<Void> triggerAsyncLoad(UUID playerUuid) {
+        if (playerBracketsCache.containsKey(playerUuid)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> existing = loadingPlayers.get(playerUuid);
+        if (existing != null) {
+            return existing;
         }
 
-        if (!loadingPlayers.add(playerUuid)) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        existing = loadingPlayers.putIfAbsent(playerUuid, future);
+        if (existing != null) {
+            return existing;
+        }
+
+        repository.getPlayerBrackets(playerUuid).whenCompleteAsync((bracketIds, error) -> {
+            if (error != null) {
+                failLoad(playerUuid, future, error);
+            } else {
+                completeLoad(playerUuid, future, bracketIds);
+            }
+        }, plugin.getCallbackDispatcher().player(playerUuid));
+        return future;
+    }
+
+    /**
+     * 预留一次加载（供合并加载使用）
+     * @return 新的加载 Future；已加载或正在加载时返回 null
+     */
+    CompletableFuture<Void> reserveLoad(UUID playerUuid) {
+        if (playerBracketsCache.containsKey(playerUuid)) {
+            return null;
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        return loadingPlayers.putIfAbsent(playerUuid, future) == null ? future : null;
+    }
+
+    /**
+     * 用数据库结果完成一次加载
+     */
+    void completeLoad(UUID playerUuid, CompletableFuture<Void> future, Set<String> bracketIds) {
+        // 加载期间被卸载，丢弃结果
+        if (!loadingPlayers.remove(playerUuid, future)) {
             return;
         }
+        long[] bits = BracketOrdinals.emptyBits();
+        for (String bracketId : bracketIds) {
+            bits = BracketOrdinals.with(bits, ordinals.assign(bracketId));
+        }
+        playerBracketsCache.put(playerUuid, bits);
+        future.complete(null);
+    }
 
-        repository.getPlayerBrackets(playerUuid, bracketIds -> {
-            playerBracketsCache.put(playerUuid, ConcurrentHashMap.newKeySet());
-            playerBracketsCache.get(playerUuid).addAll(bracketIds);
-            loadingPlayers.remove(playerUuid);
-        });
+    /**
+     * 查询失败或被拒绝时结束一次加载：移出加载表（下次访问重新加载），以异常通知等待方
+     */
+    void failLoad(UUID playerUuid, CompletableFuture<Void> future, Throwable error) {
+        if (!loadingPlayers.remove(playerUuid, future)) {
+            return;
+        }
+        plugin.getLogger().warning("加载玩家 " + playerUuid + " 的边框数据失败: " + error.getMessage());
+        future.completeExceptionally(error);
     }
 
     /**
@@ -112,6 +187,7 @@ public class BracketCacheManager {
      */
     public void clearAll() {
         playerBracketsCache.clear();
+        loadingPlayers.values().forEach(future -> future.complete(null));
         loadingPlayers.clear();
     }
 }
@@ -19,6 +19,8 @@ import java.util.*;
 
 /**
  * 边框管理器
+ * 加载 brackets.yml 时为每个边框分配固定序号，玩家拥有的边框以位图保存，
+ * 默认边框的位图在加载时预先算好，查询时与玩家位图合并
  */
 public class BracketManager {
 
@@ -30,8 +32,11 @@ public class BracketManager {
     private final EconomyManager economyManager;
     private final PlayerPointsManager playerPointsManager;
 
-    // 预设边框缓存
-    private Map<String, BracketData> presetBrackets = new HashMap<>();
+    // 预设边框缓存（重载时整体替换）
+    private volatile Map<String, BracketData> presetBrackets = new HashMap<>();
+
+    // 序号 -> 预设边框（未配置的序号为 null）、配置中的位置与默认边框位图，重载时整体替换
+    private volatile OrdinalIndex ordinalIndex = new OrdinalIndex(new BracketData[0], new int[0], BracketOrdinals.emptyBits());
 
     public BracketManager(SimpleTitlePlugin plugin) {
         this.plugin = plugin;
@@ -59,20 +64,38 @@ public class BracketManager {
         YamlConfiguration defaultConfig = YamlConfiguration.loadConfiguration(defaultReader);
         bracketsConfig.setDefaults(defaultConfig);
 
-        // 解析边框
-        this.presetBrackets.clear();
+        // 解析边框（按配置顺序分配序号，已分配过的边框沿用原序号）
+        BracketOrdinals ordinals = cacheManager.getOrdinals();
+        Map<String, BracketData> loaded = new HashMap<>();
+        // 序号在重载后保持不变，不再反映配置顺序，另外记录每个边框在 brackets.yml 中的位置
+        Map<String, Integer> positions = new HashMap<>();
         ConfigurationSection bracketsSection = bracketsConfig.getConfigurationSection("brackets");
         if (bracketsSection != null) {
             for (String bracketId : bracketsSection.getKeys(false)) {
                 ConfigurationSection bracketSection = bracketsSection.getConfigurationSection(bracketId);
                 if (bracketSection != null) {
                     BracketData data = parseBracketData(bracketId, bracketSection);
-                    presetBrackets.put(bracketId, data);
+                    data.setOrdinal(ordinals.assign(bracketId));
+                    loaded.put(bracketId, data);
+                    positions.put(bracketId, positions.size());
                 }
             }
         }
 
-        plugin.getLogger().info("已加载 " + presetBrackets.size() + " 个预设边框");
+        BracketData[] byOrdinal = new BracketData[ordinals.size()];
+        int[] positionByOrdinal = new int[byOrdinal.length];
+        long[] defaultBits = BracketOrdinals.emptyBits();
+        for (BracketData data : loaded.values()) {
+            byOrdinal[data.getOrdinal()] = data;
+            positionByOrdinal[data.getOrdinal()] = positions.get(data.getBracketId());
+            if (data.isDefault()) {
+                defaultBits = BracketOrdinals.with(defaultBits, data.getOrdinal());
+            }
+        }
+        this.ordinalIndex = new OrdinalIndex(byOrdinal, positionByOrdinal, defaultBits);
+        this.presetBrackets = loaded;
+
+        plugin.getLogger().info("已加载 " + loaded.size() + " 个预设边框");
     }
 
     private BracketData parseBracketData(String bracketId, ConfigurationSection section) {
@@ -133,31 +156,34 @@ public class BracketManager {
         if (bracket.isDefault()) return true;
 
         // 检查缓存
-        return cacheManager.hasBracket(playerUuid, bracketId);
+        return cacheManager.hasBracket(playerUuid, bracket.getOrdinal());
     }
 
     /**
-     * 获取玩家拥有的所有边框（包括默认边框）
+     * 获取玩家拥有的所有边框（包括默认边框），按配置顺序排列
      */
     public List<BracketData> getPlayerBrackets(UUID playerUuid) {
+        OrdinalIndex index = this.ordinalIndex;
+        long[] owned = cacheManager.getOwnedBits(playerUuid);
+        long[] defaults = index.defaultBits;
         List<BracketData> result = new ArrayList<>();
 
-        // 添加默认边框
-        for (BracketData bracket : presetBrackets.values()) {
-            if (bracket.isDefault()) {
-                result.add(bracket);
-            }
-        }
-
-        // 添加购买的边框
-        Set<String> ownedIds = cacheManager.getOwnedBracketIds(playerUuid);
-        for (String bracketId : ownedIds) {
-            BracketData bracket = presetBrackets.get(bracketId);
-            if (bracket != null && !bracket.isDefault()) {
-                result.add(bracket);
+        // 遍历玩家位图与默认位图合并后的每个置位
+        int words = Math.max(owned.length, defaults.length);
+        for (int i = 0; i < words; i++) {
+            long word = (i < owned.length ? owned[i] : 0L) | (i < defaults.length ? defaults[i] : 0L);
+            while (word != 0) {
+                int ordinal = (i << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                // 数据库中有但已不在配置中的边框跳过
+                if (ordinal < index.byOrdinal.length && index.byOrdinal[ordinal] != null) {
+                    result.add(index.byOrdinal[ordinal]);
+                }
             }
         }
 
+        // 位图按序号遍历，重载后新增的边框序号在末尾，需按配置位置重新排序
+        result.sort(Comparator.comparingInt(bracket -> index.positionByOrdinal[bracket.getOrdinal()]));
         return result;
     }
 
@@ -257,6 +283,21 @@ public class BracketManager {
         cacheManager.unloadPlayer(playerUuid);
     }
 
+    /**
+     * 序号索引（不可修改）
+     */
+    private static final class OrdinalIndex {
+        private final BracketData[] byOrdinal;
+        private final int[] positionByOrdinal;
+        private final long[] defaultBits;
+
+        OrdinalIndex(BracketData[] byOrdinal, int[] positionByOrdinal, long[] defaultBits) {
+            this.byOrdinal = byOrdinal;
+            this.positionByOrdinal = positionByOrdinal;
+            this.defaultBits = defaultBits;
+        }
+    }
+
     /**
      * 购买结果枚举
      */
@@ -0,0 +1,98 @@
+package dev.user.title.manager;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 边框序号表
+ * 每个边框ID分配一个固定的序号，玩家拥有的边框以 long[] 位图保存（第 n 位表示序号为 n 的边框）。
+ * 序号只增不减：重载 brackets.yml 时已有的边框沿用原序号，新边框追加在末尾，
+ * 已加载玩家的位图无需重建；数据库中存在但未配置的边框同样分配序号，重新配置后立即生效
+ */
+final class BracketOrdinals {
+
+    private static final long[] EMPTY_BITS = new long[0];
+
+    // bracketId -> 序号
+    private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+
+    // 序号 -> bracketId（追加时整体替换）
+    private volatile String[] ids = new String[0];
+
+    /**
+     * 查询序号，未分配时返回 -1
+     */
+    int find(String bracketId) {
+        Integer ordinal = ordinals.get(bracketId);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * 查询序号，未分配时分配下一个序号
+     */
+    int assign(String bracketId) {
+        Integer ordinal = ordinals.get(bracketId);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        synchronized (this) {
+            ordinal = ordinals.get(bracketId);
+            if (ordinal != null) {
+                return ordinal;
+            }
+            int next = ids.length;
+            String[] grown = Arrays.copyOf(ids, next + 1);
+            grown[next] = bracketId;
+            // 先发布 ID 表，查到序号的线程一定能取到对应的 ID
+            ids = grown;
+            ordinals.put(bracketId, next);
+            return next;
+        }
+    }
+
+    /**
+     * 序号对应的边框ID，超出范围时返回 null
+     */
+    String idOf(int ordinal) {
+        String[] current = ids;
+        return ordinal >= 0 && ordinal < current.length ? current[ordinal] : null;
+    }
+
+    /**
+     * 已分配的序号数
+     */
+    int size() {
+        return ids.length;
+    }
+
+    // ==================== 位图操作（位图不可修改，变更时返回新数组） ====================
+
+    static long[] emptyBits() {
+        return EMPTY_BITS;
+    }
+
+    static boolean contains(long[] bits, int ordinal) {
+        int word = ordinal >>> 6;
+        return ordinal >= 0 && word < bits.length && (bits[word] & (1L << ordinal)) != 0;
+    }
+
+    static long[] with(long[] bits, int ordinal) {
+        if (contains(bits, ordinal)) {
+            return bits;
+        }
+        int word = ordinal >>> 6;
+        long[] copy = Arrays.copyOf(bits, Math.max(bits.length, word + 1));
+        copy[word] |= 1L << ordinal;
+        return copy;
+    }
+
+    static long[] without(long[] bits, int ordinal) {
+        if (!contains(bits, ordinal)) {
+            return bits;
+        }
+        long[] copy = bits.clone();
+        copy[ordinal >>> 6] &= ~(1L << ordinal);
+        return copy;
+    }
+}
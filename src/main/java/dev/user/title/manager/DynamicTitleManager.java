@@ -2,24 +2,35 @@ package dev.user.title.manager;
 
 import dev.user.title.SimpleTitlePlugin;
 import dev.user.title.config.ConfigManager;
+import dev.user.title.model.PlayerTitleState;
 import dev.user.title.model.TitleData;
 import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
-import java.util.Map;
 import java.util.UUID;
 
 /**
  * 动态称号管理器
  * 管理动态称号的内容切换
+ *
+ * 时钟模式下当前帧在读取时由单调时钟推算：(now / interval) % frameCount，
+ * 不需要定时任务，也不写入追踪器；关闭时钟模式则由全局定时任务逐个推进
  */
 public class DynamicTitleManager {
 
+    // 1 tick = 50ms
+    private static final long NANOS_PER_TICK = 50_000_000L;
+
     private final SimpleTitlePlugin plugin;
     private final DynamicTitleTracker tracker;
     private ScheduledTask switchTask;
 
+    // 时钟模式参数
+    private volatile boolean clockDriven;
+    private volatile int switchInterval = 1;
+    private volatile long clockOrigin = System.nanoTime();
+
     public DynamicTitleManager(SimpleTitlePlugin plugin) {
         this.plugin = plugin;
         this.tracker = new DynamicTitleTracker();
@@ -30,7 +41,16 @@ public class DynamicTitleManager {
      */
     public void start() {
         ConfigManager config = plugin.getConfigManager();
-        int interval = config.getDynamicTitleSwitchInterval();
+        int interval = Math.max(1, config.getDynamicTitleSwitchInterval());
+
+        this.switchInterval = interval;
+        this.clockOrigin = System.nanoTime();
+        this.clockDriven = config.isDynamicTitleClockDriven();
+
+        // 时钟模式：帧在读取时计算，无需定时任务
+        if (clockDriven) {
+            return;
+        }
 
         switchTask = plugin.getServer().getGlobalRegionScheduler().runAtFixedRate(plugin, task -> {
             updateDynamicTitles();
@@ -58,15 +78,12 @@ public class DynamicTitleManager {
         for (Player player : Bukkit.getOnlinePlayers()) {
             UUID playerUuid = player.getUniqueId();
 
-            // 获取玩家当前使用的称号
-            String titleId = cacheManager.getCurrentTitleId(playerUuid);
-            if (titleId == null) continue;
-
-            // 获取称号数据
-            Map<String, TitleData> playerTitles = cacheManager.getPlayerTitles(playerUuid);
-            if (playerTitles == null) continue;
+            // 获取玩家当前称号状态快照
+            PlayerTitleState state = cacheManager.getState(playerUuid);
+            if (state == null) continue;
 
-            TitleData titleData = playerTitles.get(titleId);
+            String titleId = state.getCurrentTitleId();
+            TitleData titleData = state.getCurrentTitle();
             if (titleData == null) continue;
 
             // 只处理动态称号
@@ -85,8 +102,30 @@ public class DynamicTitleManager {
             return titleData.getContent(0);
         }
 
+        return titleData.getContent(getFrameIndex(playerUuid, titleId, titleData.getContentCount()));
+    }
+
+    /**
+     * 获取动态称号当前显示的帧索引（用于预渲染结果取帧）
+     */
+    public int getFrameIndex(UUID playerUuid, String titleId, int frameCount) {
+        if (frameCount <= 1) {
+            return 0;
+        }
+        if (clockDriven) {
+            return clockFrame(frameCount);
+        }
         int index = tracker.getCurrentIndex(playerUuid, titleId);
-        return titleData.getContent(index);
+        return Math.max(0, Math.min(index, frameCount - 1));
+    }
+
+    /**
+     * 由单调时钟推算当前帧
+     * 所有玩家共享同一时钟，同一称号同步切换
+     */
+    private int clockFrame(int frameCount) {
+        long ticks = (System.nanoTime() - clockOrigin) / NANOS_PER_TICK;
+        return (int) ((ticks / switchInterval) % frameCount);
     }
 
     /**
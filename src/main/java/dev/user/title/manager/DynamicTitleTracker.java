@@ -6,26 +6,23 @@ import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 动态称号追踪器
- * 追踪每个玩家的每个动态称号当前显示的内容索引
+ * 每个玩家一个槽位，记录当前动态称号及其显示的内容索引
+ * 以 UUID 为键，读取路径不拼接字符串、不装箱
  */
 public class DynamicTitleTracker {
 
-    // key = "playerUuid:titleId", value = 当前索引
-    private final Map<String, Integer> currentIndices = new ConcurrentHashMap<>();
-
-    /**
-     * 生成缓存键
-     */
-    private String getKey(UUID playerUuid, String titleId) {
-        return playerUuid.toString() + ":" + titleId;
-    }
+    // key = playerUuid, value = 玩家槽位
+    private final Map<UUID, Slot> slots = new ConcurrentHashMap<>();
 
     /**
      * 获取当前显示索引
      */
     public int getCurrentIndex(UUID playerUuid, String titleId) {
-        String key = getKey(playerUuid, titleId);
-        return currentIndices.getOrDefault(key, 0);
+        Slot slot = slots.get(playerUuid);
+        if (slot == null) {
+            return 0;
+        }
+        return slot.indexOf(titleId);
     }
 
     /**
@@ -35,33 +32,64 @@ public class DynamicTitleTracker {
     public int nextIndex(UUID playerUuid, String titleId, int maxSize) {
         if (maxSize <= 1) return 0;
 
-        String key = getKey(playerUuid, titleId);
-        int current = currentIndices.getOrDefault(key, 0);
-        int next = (current + 1) % maxSize;
-        currentIndices.put(key, next);
-        return next;
+        Slot slot = slots.get(playerUuid);
+        if (slot == null) {
+            slot = slots.computeIfAbsent(playerUuid, k -> new Slot());
+        }
+        return slot.advance(titleId, maxSize);
     }
 
     /**
      * 移除玩家的所有动态称号追踪数据
      */
     public void removePlayer(UUID playerUuid) {
-        String prefix = playerUuid.toString() + ":";
-        currentIndices.entrySet().removeIf(entry -> entry.getKey().startsWith(prefix));
+        slots.remove(playerUuid);
     }
 
     /**
      * 移除指定称号的追踪数据
      */
     public void removeTitle(UUID playerUuid, String titleId) {
-        String key = getKey(playerUuid, titleId);
-        currentIndices.remove(key);
+        Slot slot = slots.get(playerUuid);
+        if (slot != null) {
+            slot.reset(titleId);
+        }
     }
 
     /**
      * 清空所有数据
      */
     public void clear() {
-        currentIndices.clear();
+        slots.clear();
+    }
+
+    /**
+     * 玩家槽位：当前称号引用 + 帧索引
+     * 玩家只追踪当前使用的那一个称号，槽位在玩家首次推进时创建一次
+     */
+    private static final class Slot {
+        private String titleId;
+        private int frame;
+
+        synchronized int indexOf(String titleId) {
+            return titleId.equals(this.titleId) ? frame : 0;
+        }
+
+        synchronized int advance(String titleId, int maxSize) {
+            if (!titleId.equals(this.titleId)) {
+                // 切换了称号，从头开始
+                this.titleId = titleId;
+                this.frame = 0;
+            }
+            frame = (frame + 1) % maxSize;
+            return frame;
+        }
+
+        synchronized void reset(String titleId) {
+            if (titleId.equals(this.titleId)) {
+                this.titleId = null;
+                this.frame = 0;
+            }
+        }
     }
 }
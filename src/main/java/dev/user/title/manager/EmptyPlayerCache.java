@@ -0,0 +1,104 @@
+package dev.user.title.manager;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无称号玩家缓存（负缓存）
+ * 记录查询过但数据库中没有任何称号的离线 UUID（NPC、Citizens 实体、从未进服的玩家等），
+ * 存活时间内不再为它们查询数据库；获得称号、登录或存活时间到期时移除。
+ * 只保存 UUID 与到期时间，条数有上限，满时不再记录新条目
+ */
+final class EmptyPlayerCache {
+
+    // playerUuid -> 到期时间
+    private final Map<UUID, Long> expiries = new ConcurrentHashMap<>();
+
+    private volatile int maxSize;
+    private volatile long ttlMillis;
+
+    private final LongAdder hits = new LongAdder();
+
+    EmptyPlayerCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+    }
+
+    void configure(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        if (ttlMillis <= 0 || maxSize <= 0) {
+            expiries.clear();
+        }
+    }
+
+    /**
+     * 是否已知没有称号（命中时计数，过期条目移除）
+     */
+    boolean contains(UUID playerUuid) {
+        Long expiresAt = expiries.get(playerUuid);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() >= expiresAt) {
+            expiries.remove(playerUuid, expiresAt);
+            return false;
+        }
+        hits.increment();
+        return true;
+    }
+
+    /**
+     * 是否已知没有称号（不计数）
+     */
+    boolean peek(UUID playerUuid) {
+        Long expiresAt = expiries.get(playerUuid);
+        return expiresAt != null && System.currentTimeMillis() < expiresAt;
+    }
+
+    /**
+     * 记录一个没有称号的 UUID
+     */
+    void add(UUID playerUuid) {
+        long ttl = ttlMillis;
+        if (ttl <= 0 || maxSize <= 0) {
+            return;
+        }
+        if (expiries.size() >= maxSize) {
+            sweep();
+            if (expiries.size() >= maxSize) {
+                return;
+            }
+        }
+        expiries.put(playerUuid, System.currentTimeMillis() + ttl);
+    }
+
+    /**
+     * 移除记录（获得称号或登录时调用）
+     */
+    void remove(UUID playerUuid) {
+        expiries.remove(playerUuid);
+    }
+
+    /**
+     * 移除所有过期条目
+     */
+    void sweep() {
+        long now = System.currentTimeMillis();
+        expiries.values().removeIf(expiresAt -> now >= expiresAt);
+    }
+
+    void clear() {
+        expiries.clear();
+    }
+
+    int size() {
+        return expiries.size();
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+}
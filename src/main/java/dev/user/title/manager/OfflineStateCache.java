@@ -0,0 +1,196 @@
+package dev.user.title.manager;
+
+import dev.user.title.model.PlayerTitleState;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * 离线玩家称号缓存
+ * 排行榜全息图等为不在线的玩家解析占位符时加载的数据放在这里，而不是常驻的在线缓存：
+ * 条数有上限，超出时淘汰最久未访问的条目；加载后超过存活时间的条目视为过期。
+ * 条目被淘汰或过期时通知调用方（用于清理对应的渲染结果）
+ */
+final class OfflineStateCache {
+
+    private final Map<UUID, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Consumer<UUID> onRemoved;
+
+    private volatile int maxSize;
+    private volatile long ttlMillis;
+
+    // 统计
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    OfflineStateCache(int maxSize, long ttlMillis, Consumer<UUID> onRemoved) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.onRemoved = onRemoved;
+    }
+
+    /**
+     * 更新容量与存活时间（重载配置时调用，超出新容量的条目立即淘汰）
+     */
+    void configure(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        notifyRemoved(trim());
+    }
+
+    /**
+     * 查询并记录命中/未命中，命中时刷新访问顺序；过期条目移除并按未命中处理
+     */
+    PlayerTitleState get(UUID playerUuid) {
+        boolean expired = false;
+        PlayerTitleState state = null;
+        synchronized (this) {
+            Entry entry = entries.get(playerUuid);
+            if (entry != null) {
+                if (isExpired(entry, System.currentTimeMillis())) {
+                    entries.remove(playerUuid);
+                    expired = true;
+                } else {
+                    state = entry.state;
+                }
+            }
+        }
+        if (state != null) {
+            hits.increment();
+            return state;
+        }
+        misses.increment();
+        if (expired) {
+            evictions.increment();
+            onRemoved.accept(playerUuid);
+        }
+        return null;
+    }
+
+    /**
+     * 是否缓存了该玩家（不计入统计，不刷新访问顺序，不检查过期）
+     */
+    synchronized boolean contains(UUID playerUuid) {
+        return entries.containsKey(playerUuid);
+    }
+
+    /**
+     * 放入加载结果，超出容量时淘汰最久未访问的条目
+     */
+    void put(UUID playerUuid, PlayerTitleState state) {
+        List<UUID> removed;
+        synchronized (this) {
+            entries.put(playerUuid, new Entry(state, System.currentTimeMillis()));
+            removed = trim();
+        }
+        notifyRemoved(removed);
+    }
+
+    /**
+     * 修改已缓存的状态（不改变加载时间）
+     * @return 修改后的状态，未缓存时返回 null
+     */
+    synchronized PlayerTitleState computeIfPresent(UUID playerUuid, UnaryOperator<PlayerTitleState> mutation) {
+        Entry entry = entries.get(playerUuid);
+        if (entry == null) {
+            return null;
+        }
+        entry.state = mutation.apply(entry.state);
+        return entry.state;
+    }
+
+    /**
+     * 移除并返回玩家的状态（玩家上线转入在线缓存、刷新或卸载时调用）
+     */
+    synchronized PlayerTitleState remove(UUID playerUuid) {
+        Entry entry = entries.remove(playerUuid);
+        return entry != null ? entry.state : null;
+    }
+
+    /**
+     * 移除所有过期条目
+     */
+    void sweep() {
+        List<UUID> removed = new ArrayList<>();
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            Iterator<Map.Entry<UUID, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<UUID, Entry> entry = iterator.next();
+                if (isExpired(entry.getValue(), now)) {
+                    iterator.remove();
+                    removed.add(entry.getKey());
+                }
+            }
+        }
+        notifyRemoved(removed);
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    int getMaxSize() {
+        return maxSize;
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    long getEvictions() {
+        return evictions.sum();
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return ttlMillis > 0 && now - entry.loadedAt >= ttlMillis;
+    }
+
+    /**
+     * 淘汰超出容量的条目
+     */
+    private List<UUID> trim() {
+        List<UUID> removed = new ArrayList<>();
+        synchronized (this) {
+            Iterator<UUID> iterator = entries.keySet().iterator();
+            while (entries.size() > Math.max(0, maxSize) && iterator.hasNext()) {
+                removed.add(iterator.next());
+                iterator.remove();
+            }
+        }
+        return removed;
+    }
+
+    private void notifyRemoved(List<UUID> removed) {
+        for (UUID playerUuid : removed) {
+            evictions.increment();
+            onRemoved.accept(playerUuid);
+        }
+    }
+
+    private static final class Entry {
+        private PlayerTitleState state;
+        private final long loadedAt;
+
+        Entry(PlayerTitleState state, long loadedAt) {
+            this.state = state;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,424 @@
+package dev.user.title.manager;
+
+import dev.user.title.SimpleTitlePlugin;
+import dev.user.title.config.ConfigManager;
+import dev.user.title.database.DatabaseQueue;
+import dev.user.title.database.TitleRepository;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 玩家数据加载器
+ * 统一加载玩家的称号与边框缓存，并负责登录前预加载：
+ * 在 AsyncPlayerPreLoginEvent 中提前读取数据库，进入服务器时缓存已就绪；
+ * 登录被拒绝或迟迟未进入时丢弃预加载的数据
+ *
+ * 同时需要称号与边框的玩家会在短时间窗口内合并，按数据库通道拆分后每条通道一条 IN 查询加载，
+ * 避免登录高峰时数据库队列上排起数百个单人查询
+ *
+ * 玩家退出后数据不会立即卸载，而是记入"最近退出"列表并保留一段宽限时间：
+ * 宽限时间内重新进入（重连、在大厅之间跳转）直接沿用缓存，不查询数据库；
+ * 到期的玩家由同一个定时任务批量卸载。
+ * 使用 MySQL 时宽限时间固定为 0（见 ConfigManager）：玩家跳转到的其他服务器可能修改了数据，
+ * 沿用缓存会读到旧数据，并在之后的写入中覆盖其他服务器的修改
+ */
+public class PlayerDataLoader {
+
+    // 预加载后超过该时间仍未进入服务器，视为放弃登录
+    private static final long PREFETCH_EXPIRE_MILLIS = 60_000L;
+
+    // 最近退出玩家与过期预加载的清理间隔
+    private static final long SWEEP_INTERVAL_SECONDS = 5L;
+
+    private final SimpleTitlePlugin plugin;
+    private final TitleCacheManager titleCacheManager;
+    private final BracketCacheManager bracketCacheManager;
+    private final TitleRepository repository;
+    private final DatabaseQueue dbQueue;
+
+    // 已预加载但尚未进入服务器的玩家
+    private final Map<UUID, Prefetch> prefetchedPlayers = new ConcurrentHashMap<>();
+
+    // 退出后仍在宽限时间内的玩家: playerUuid -> 到期时间
+    private final Map<UUID, Long> departedPlayers = new ConcurrentHashMap<>();
+
+    // 定期卸载宽限时间已到的玩家、清理过期的预加载
+    private ScheduledTask sweepTask;
+
+    // 宽限时间内重新进入的次数
+    private final LongAdder restoredCount = new LongAdder();
+
+    // 当前收集中的合并加载批次
+    private final Object batchLock = new Object();
+    private List<BatchEntry> pendingBatch = new ArrayList<>();
+
+    public PlayerDataLoader(SimpleTitlePlugin plugin) {
+        this.plugin = plugin;
+        this.titleCacheManager = plugin.getTitleCacheManager();
+        this.bracketCacheManager = plugin.getBracketCacheManager();
+        this.repository = plugin.getTitleRepository();
+        this.dbQueue = plugin.getDatabaseQueue();
+    }
+
+    /**
+     * 启动最近退出玩家与过期预加载的定期清理
+     */
+    public void start() {
+        sweepTask = plugin.getServer().getAsyncScheduler().runAtFixedRate(plugin,
+                task -> {
+                    sweepDeparted();
+                    purgeExpiredPrefetches();
+                },
+                SWEEP_INTERVAL_SECONDS, SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 停止定期清理
+     */
+    public void shutdown() {
+        if (sweepTask != null) {
+            sweepTask.cancel();
+            sweepTask = null;
+        }
+    }
+
+    /**
+     * 加载玩家称号与边框数据，两者都完成时 Future 完成
+     */
+    public CompletableFuture<Void> load(UUID playerUuid) {
+        TitleCacheManager.PendingLoad titleLoad = titleCacheManager.reserveLoad(playerUuid);
+        CompletableFuture<Void> bracketLoad = bracketCacheManager.reserveLoad(playerUuid);
+
+        // 两者都需要加载：一次查询同时取回称号与边框（登录高峰时合并进批量查询）
+        if (titleLoad != null && bracketLoad != null) {
+            enqueue(new BatchEntry(playerUuid, titleLoad, bracketLoad));
+            return CompletableFuture.allOf(titleLoad.getFuture(), bracketLoad);
+        }
+
+        // 只缺其中一项（或已在加载中）：走各自的加载路径
+        if (titleLoad != null) {
+            repository.getPlayerTitles(playerUuid).whenCompleteAsync((titles, error) -> {
+                if (error != null) {
+                    titleCacheManager.failLoad(playerUuid, titleLoad, error);
+                } else {
+                    titleCacheManager.completeLoad(playerUuid, titleLoad, titles);
+                }
+            }, plugin.getCallbackDispatcher().player(playerUuid));
+        }
+        if (bracketLoad != null) {
+            repository.getPlayerBrackets(playerUuid).whenCompleteAsync((bracketIds, error) -> {
+                if (error != null) {
+                    bracketCacheManager.failLoad(playerUuid, bracketLoad, error);
+                } else {
+                    bracketCacheManager.completeLoad(playerUuid, bracketLoad, bracketIds);
+                }
+            }, plugin.getCallbackDispatcher().player(playerUuid));
+        }
+        return CompletableFuture.allOf(
+                titleLoad != null ? titleLoad.getFuture() : titleCacheManager.load(playerUuid),
+                bracketLoad != null ? bracketLoad : bracketCacheManager.load(playerUuid));
+    }
+
+    /**
+     * 将一次合并加载加入当前批次
+     * 批次中的第一个玩家负责安排窗口结束后的查询；达到批次上限时立即查询
+     */
+    private void enqueue(BatchEntry entry) {
+        ConfigManager config = plugin.getConfigManager();
+        int windowMs = config.getJoinBatchWindowMs();
+        if (windowMs <= 0) {
+            loadSingle(entry);
+            return;
+        }
+
+        List<BatchEntry> ready = null;
+        boolean scheduleFlush = false;
+        synchronized (batchLock) {
+            pendingBatch.add(entry);
+            if (pendingBatch.size() >= Math.max(1, config.getJoinBatchMaxSize())) {
+                ready = takeBatch();
+            } else if (pendingBatch.size() == 1) {
+                scheduleFlush = true;
+            }
+        }
+
+        if (ready != null) {
+            loadBatch(ready);
+        } else if (scheduleFlush) {
+            plugin.getServer().getAsyncScheduler().runDelayed(plugin, task -> flushBatch(),
+                    windowMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 立即查询当前批次
+     */
+    private void flushBatch() {
+        List<BatchEntry> ready;
+        synchronized (batchLock) {
+            ready = takeBatch();
+        }
+        if (!ready.isEmpty()) {
+            loadBatch(ready);
+        }
+    }
+
+    private List<BatchEntry> takeBatch() {
+        List<BatchEntry> ready = pendingBatch;
+        pendingBatch = new ArrayList<>();
+        return ready;
+    }
+
+    private void loadSingle(BatchEntry entry) {
+        repository.loadPlayerData(entry.playerUuid).whenCompleteAsync((data, error) -> {
+            if (error != null) {
+                fail(entry, error);
+            } else {
+                complete(entry, data);
+            }
+        }, plugin.getCallbackDispatcher().player(entry.playerUuid));
+    }
+
+    /**
+     * 按数据库通道拆分批次：每条通道一条合并查询，保证与各玩家其他操作的顺序
+     */
+    private void loadBatch(List<BatchEntry> batch) {
+        Map<Integer, Map<UUID, BatchEntry>> byLane = new HashMap<>();
+        for (BatchEntry entry : batch) {
+            byLane.computeIfAbsent(dbQueue.laneOf(entry.playerUuid), lane -> new LinkedHashMap<>())
+                    .put(entry.playerUuid, entry);
+        }
+        for (Map<UUID, BatchEntry> entries : byLane.values()) {
+            if (entries.size() == 1) {
+                loadSingle(entries.values().iterator().next());
+            } else {
+                loadLane(entries);
+            }
+        }
+    }
+
+    private void loadLane(Map<UUID, BatchEntry> entries) {
+        repository.loadPlayerDataBatch(entries.keySet()).whenCompleteAsync((results, error) -> {
+            for (BatchEntry entry : entries.values()) {
+                TitleRepository.PlayerData data = error == null ? results.get(entry.playerUuid) : null;
+                if (data != null) {
+                    complete(entry, data);
+                } else {
+                    // 查询失败或被拒绝：释放预留的加载，等待方收到异常，下次访问重新加载
+                    fail(entry, error != null ? error : new SQLException("批量加载结果缺少玩家 " + entry.playerUuid));
+                }
+            }
+        }, plugin.getCallbackDispatcher().global());
+    }
+
+    private void complete(BatchEntry entry, TitleRepository.PlayerData data) {
+        titleCacheManager.completeLoad(entry.playerUuid, entry.titleLoad, data.getTitles());
+        bracketCacheManager.completeLoad(entry.playerUuid, entry.bracketLoad, data.getBracketIds());
+    }
+
+    private void fail(BatchEntry entry, Throwable error) {
+        titleCacheManager.failLoad(entry.playerUuid, entry.titleLoad, error);
+        bracketCacheManager.failLoad(entry.playerUuid, entry.bracketLoad, error);
+    }
+
+    /**
+     * 登录前预加载（在 AsyncPlayerPreLoginEvent 的异步线程中调用）
+     * 阻塞等待加载完成，最长等待配置的超时时间；超时不影响登录，进入后继续加载
+     */
+    public void prefetch(UUID playerUuid) {
+        ConfigManager config = plugin.getConfigManager();
+        if (!config.isPrefetchEnabled()) {
+            return;
+        }
+
+        // 缓存已存在（同一 UUID 仍在线，或处于退出宽限时间内）时，丢弃预加载不能卸载这份数据
+        prefetchedPlayers.put(playerUuid, new Prefetch(System.currentTimeMillis(),
+                titleCacheManager.isResident(playerUuid)));
+        // 宽限时间内重新登录：缓存仍在，之后由预加载记录接管
+        restoreDeparted(playerUuid);
+
+        try {
+            load(playerUuid).get(Math.max(0, config.getPrefetchTimeoutMs()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            plugin.getLogger().fine("[Prefetch] 玩家 " + playerUuid + " 数据预加载超时，进入后继续加载");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            plugin.getLogger().warning("[Prefetch] 玩家 " + playerUuid + " 数据预加载失败: " + e.getCause());
+        }
+    }
+
+    /**
+     * 丢弃预加载的数据（登录被拒绝时调用）
+     */
+    public void discardPrefetch(UUID playerUuid) {
+        Prefetch prefetch = prefetchedPlayers.remove(playerUuid);
+        if (prefetch != null) {
+            release(playerUuid, prefetch);
+        }
+    }
+
+    /**
+     * 释放未被接管的预加载数据
+     * 同一 UUID 已在线（重复登录被拒绝）时缓存属于在线的玩家，只移除预加载记录；
+     * 预加载前缓存已存在的（退出宽限时间内）放回最近退出列表，其余直接卸载
+     */
+    private void release(UUID playerUuid, Prefetch prefetch) {
+        if (Bukkit.getPlayer(playerUuid) != null) {
+            return;
+        }
+        if (prefetch.wasResident) {
+            onPlayerQuit(playerUuid);
+        } else {
+            titleCacheManager.unloadPlayer(playerUuid);
+            bracketCacheManager.unloadPlayer(playerUuid);
+        }
+    }
+
+    /**
+     * 玩家进入服务器：接管预加载的数据，未预加载（或已失效）时开始加载
+     */
+    public void onPlayerJoin(UUID playerUuid) {
+        prefetchedPlayers.remove(playerUuid);
+        restoreDeparted(playerUuid);
+        load(playerUuid);
+    }
+
+    /**
+     * 玩家退出：宽限时间为 0 时立即卸载，否则记入最近退出列表，到期后由定时任务卸载
+     * 未写入的修改应在调用前写入
+     */
+    public void onPlayerQuit(UUID playerUuid) {
+        int graceSeconds = plugin.getConfigManager().getQuitGraceSeconds();
+        if (graceSeconds <= 0) {
+            unload(playerUuid);
+            return;
+        }
+        departedPlayers.put(playerUuid, System.currentTimeMillis() + graceSeconds * 1000L);
+    }
+
+    /**
+     * 从最近退出列表中取回玩家（数据仍在缓存中，无需重新加载）
+     */
+    private void restoreDeparted(UUID playerUuid) {
+        if (departedPlayers.remove(playerUuid) != null) {
+            restoredCount.increment();
+        }
+    }
+
+    /**
+     * 批量卸载宽限时间已到的玩家
+     * 与 restoreDeparted 通过同一个 ConcurrentHashMap 条目互斥：
+     * 卸载完成前重新进入的玩家会等待，之后按未加载处理重新查询
+     */
+    private void sweepDeparted() {
+        if (departedPlayers.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (UUID playerUuid : departedPlayers.keySet()) {
+            departedPlayers.computeIfPresent(playerUuid, (uuid, expiresAt) -> {
+                if (now < expiresAt) {
+                    return expiresAt;
+                }
+                if (Bukkit.getPlayer(uuid) == null) {
+                    unload(uuid);
+                }
+                return null;
+            });
+        }
+    }
+
+    /**
+     * 卸载玩家的称号、边框缓存与动态称号追踪
+     */
+    private void unload(UUID playerUuid) {
+        titleCacheManager.unloadPlayer(playerUuid);
+        bracketCacheManager.unloadPlayer(playerUuid);
+        plugin.getDynamicTitleManager().onPlayerQuit(playerUuid);
+    }
+
+    /**
+     * 处于退出宽限时间内的玩家数
+     */
+    public int getDepartedCount() {
+        return departedPlayers.size();
+    }
+
+    /**
+     * 宽限时间内重新进入、沿用缓存的次数
+     */
+    public long getRestoredCount() {
+        return restoredCount.sum();
+    }
+
+    /**
+     * 清理预加载后长时间未进入的玩家数据（连接中途断开等情况不会触发登录事件）
+     */
+    private void purgeExpiredPrefetches() {
+        if (prefetchedPlayers.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Map.Entry<UUID, Prefetch> entry : prefetchedPlayers.entrySet()) {
+            if (now - entry.getValue().prefetchedAt >= PREFETCH_EXPIRE_MILLIS
+                    && prefetchedPlayers.remove(entry.getKey(), entry.getValue())) {
+                release(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * 清空预加载记录、最近退出记录与未发出的批次
+     */
+    public void clear() {
+        prefetchedPlayers.clear();
+        departedPlayers.clear();
+        synchronized (batchLock) {
+            takeBatch();
+        }
+    }
+
+    /**
+     * 一次预加载记录
+     */
+    private static final class Prefetch {
+        private final long prefetchedAt;
+        // 预加载前玩家数据已在在线缓存中
+        private final boolean wasResident;
+
+        Prefetch(long prefetchedAt, boolean wasResident) {
+            this.prefetchedAt = prefetchedAt;
+            this.wasResident = wasResident;
+        }
+    }
+
+    /**
+     * 批次中等待加载的一个玩家
+     */
+    private static final class BatchEntry {
+        private final UUID playerUuid;
+        private final TitleCacheManager.PendingLoad titleLoad;
+        private final CompletableFuture<Void> bracketLoad;
+
+        BatchEntry(UUID playerUuid, TitleCacheManager.PendingLoad titleLoad, CompletableFuture<Void> bracketLoad) {
+            this.playerUuid = playerUuid;
+            this.titleLoad = titleLoad;
+            this.bracketLoad = bracketLoad;
+        }
+    }
+}
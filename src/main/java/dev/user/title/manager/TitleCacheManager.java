@@ -1,41 +1,94 @@
 package dev.user.title.manager;
 
 import dev.user.title.SimpleTitlePlugin;
+import dev.user.title.config.ConfigManager;
 import dev.user.title.database.TitleRepository;
+import dev.user.title.model.PlayerTitleState;
 import dev.user.title.model.TitleData;
+import dev.user.title.placeholder.TitleRenderCache;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
 
 /**
  * 称号缓存管理器
  * 缓存玩家的称号数据，减少数据库查询
+ *
+ * 每个玩家只有一个不可变的 PlayerTitleState，所有变更都以整体替换的方式原子完成，
+ * 读取方不会看到"当前称号ID已更新但数据尚未写入"之类的中间状态
+ *
+ * 缓存分两层：在线（及正在登录）玩家的数据常驻，退出宽限时间后卸载；
+ * 为离线玩家查询（排行榜占位符等）加载的数据放入有容量和存活时间上限的离线缓存；
+ * 查询结果为没有任何称号的离线 UUID 只记入负缓存，存活时间内不再查询数据库
+ *
+ * 同步查询（hasTitle、getPlayerTitles 等）在加载完成前只能返回默认值；
+ * 依赖完整数据的操作（购买、设置称号、打开 GUI）应通过 whenLoaded 等待加载完成再继续
  */
 public class TitleCacheManager {
 
+    // 离线缓存清理间隔
+    private static final long SWEEP_INTERVAL_SECONDS = 30L;
+
     private final SimpleTitlePlugin plugin;
     private final TitleRepository repository;
+    private final TitleRenderCache renderCache;
+
+    // 在线玩家称号状态: playerUuid -> PlayerTitleState
+    private final Map<UUID, PlayerTitleState> states = new ConcurrentHashMap<>();
 
-    // 玩家称号缓存: playerUuid -> (titleId -> TitleData)
-    private final Map<UUID, Map<String, TitleData>> playerTitlesCache = new ConcurrentHashMap<>();
+    // 离线玩家称号状态
+    private final OfflineStateCache offlineStates;
 
-    // 玩家当前使用的称号缓存: playerUuid -> TitleData
-    private final Map<UUID, TitleData> currentTitleCache = new ConcurrentHashMap<>();
+    // 已知没有称号的离线 UUID
+    private final EmptyPlayerCache emptyPlayers;
 
-    // 玩家当前使用的称号ID缓存: playerUuid -> titleId
-    private final Map<UUID, String> currentTitleIdCache = new ConcurrentHashMap<>();
+    // 定期清理过期的离线缓存
+    private ScheduledTask sweepTask;
 
-    // 玩家称号数量缓存
-    private final Map<UUID, Integer> titleCountCache = new ConcurrentHashMap<>();
+    // 正在加载的玩家: playerUuid -> 进行中的加载（防止重复加载、丢弃过期结果）
+    private final Map<UUID, PendingLoad> loadingPlayers = new ConcurrentHashMap<>();
 
-    // 正在加载的玩家集合（防止重复加载）
-    private final Set<UUID> loadingPlayers = ConcurrentHashMap.newKeySet();
+    // 加载版本号生成器
+    private final AtomicLong loadSequence = new AtomicLong();
 
     public TitleCacheManager(SimpleTitlePlugin plugin) {
         this.plugin = plugin;
         this.repository = plugin.getTitleRepository();
+        this.renderCache = plugin.getTitleRenderCache();
+        ConfigManager config = plugin.getConfigManager();
+        this.offlineStates = new OfflineStateCache(config.getOfflineCacheMaxSize(),
+                config.getOfflineCacheTtlSeconds() * 1000L, renderCache::invalidate);
+        this.emptyPlayers = new EmptyPlayerCache(config.getEmptyCacheMaxSize(),
+                config.getEmptyCacheTtlSeconds() * 1000L);
+    }
+
+    /**
+     * 启动离线缓存的定期清理
+     */
+    public void start() {
+        sweepTask = plugin.getServer().getAsyncScheduler().runAtFixedRate(plugin, task -> {
+                    offlineStates.sweep();
+                    emptyPlayers.sweep();
+                },
+                SWEEP_INTERVAL_SECONDS, SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 停止定期清理
+     */
+    public void shutdown() {
+        if (sweepTask != null) {
+            sweepTask.cancel();
+            sweepTask = null;
+        }
     }
 
     /**
@@ -45,15 +98,45 @@ public class TitleCacheManager {
         triggerAsyncLoad(playerUuid);
     }
 
+    /**
+     * 加载玩家称号数据，返回加载完成的 Future
+     * 已加载时返回已完成的 Future；正在加载时返回同一个 Future
+     */
+    public CompletableFuture<Void> load(UUID playerUuid) {
+        // 登录的玩家总是查询数据库
+        emptyPlayers.remove(playerUuid);
+        if (states.containsKey(playerUuid) || promote(playerUuid)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        PendingLoad pending = triggerAsyncLoad(playerUuid);
+        if (pending == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        // 玩家正在登录，加载结果常驻
+        pending.pinned = true;
+        return pending.future;
+    }
+
     /**
      * 卸载玩家缓存（玩家退出时调用）
      */
     public void unloadPlayer(UUID playerUuid) {
-        playerTitlesCache.remove(playerUuid);
-        currentTitleCache.remove(playerUuid);
-        currentTitleIdCache.remove(playerUuid);
-        titleCountCache.remove(playerUuid);
-        loadingPlayers.remove(playerUuid);
+        states.remove(playerUuid);
+        offlineStates.remove(playerUuid);
+        emptyPlayers.remove(playerUuid);
+        PendingLoad pending = loadingPlayers.remove(playerUuid);
+        if (pending != null) {
+            // 不让等待方一直挂起
+            pending.future.complete(null);
+        }
+        renderCache.invalidate(playerUuid);
+    }
+
+    /**
+     * 获取玩家称号状态快照（未加载时返回 null，不触发加载）
+     */
+    public PlayerTitleState getState(UUID playerUuid) {
+        return lookup(playerUuid);
     }
 
     /**
@@ -61,10 +144,12 @@ public class TitleCacheManager {
      * 如果缓存中没有数据，触发异步加载并返回 null
      */
     public TitleData getCurrentTitle(UUID playerUuid) {
-        if (!isLoaded(playerUuid)) {
+        PlayerTitleState state = lookup(playerUuid);
+        if (state == null) {
             triggerAsyncLoad(playerUuid);
+            return null;
         }
-        return currentTitleCache.get(playerUuid);
+        return state.getCurrentTitle();
     }
 
     /**
@@ -72,99 +157,273 @@ public class TitleCacheManager {
      * 如果缓存中没有数据，触发异步加载并返回 null
      */
     public String getCurrentTitleId(UUID playerUuid) {
-        if (!isLoaded(playerUuid)) {
+        PlayerTitleState state = lookup(playerUuid);
+        if (state == null) {
             triggerAsyncLoad(playerUuid);
+            return null;
         }
-        return currentTitleIdCache.get(playerUuid);
+        return state.getCurrentTitleId();
     }
 
     /**
      * 设置玩家当前使用的称号（更新缓存）
      */
     public void setCurrentTitle(UUID playerUuid, String titleId, TitleData titleData) {
-        currentTitleCache.put(playerUuid, titleData);
-        currentTitleIdCache.put(playerUuid, titleId);
+        mutate(playerUuid, state -> state.withCurrent(titleId, titleData));
     }
 
     /**
      * 清除玩家当前使用的称号（更新缓存）
      */
     public void clearCurrentTitle(UUID playerUuid) {
-        currentTitleCache.remove(playerUuid);
-        currentTitleIdCache.remove(playerUuid);
+        mutate(playerUuid, PlayerTitleState::withoutCurrent);
     }
 
     /**
      * 添加玩家称号到缓存
      */
     public void addPlayerTitle(UUID playerUuid, String titleId, TitleData titleData) {
-        Map<String, TitleData> titleMap = playerTitlesCache.computeIfAbsent(playerUuid, k -> new ConcurrentHashMap<>());
-        titleMap.put(titleId, titleData);
-        titleCountCache.put(playerUuid, titleMap.size());
+        mutate(playerUuid, state -> state.withTitle(titleId, titleData));
     }
 
     /**
      * 从缓存移除玩家称号
      */
     public void removePlayerTitle(UUID playerUuid, String titleId) {
-        Map<String, TitleData> titleMap = playerTitlesCache.get(playerUuid);
-        if (titleMap != null) {
-            titleMap.remove(titleId);
-            titleCountCache.put(playerUuid, titleMap.size());
-        }
+        mutate(playerUuid, state -> state.withoutTitle(titleId));
     }
 
     /**
-     * 获取玩家所有称号（从缓存）
+     * 获取玩家所有称号（从缓存，不可修改）
      * 如果缓存中没有数据，返回空 Map 并触发异步加载
      */
     public Map<String, TitleData> getPlayerTitles(UUID playerUuid) {
-        Map<String, TitleData> cached = playerTitlesCache.get(playerUuid);
-        if (cached != null) {
-            return cached;
+        PlayerTitleState state = lookup(playerUuid);
+        if (state != null) {
+            return state.getTitles();
         }
 
         // 缓存中没有数据，触发异步加载
         triggerAsyncLoad(playerUuid);
 
-        return new ConcurrentHashMap<>();
+        return Map.of();
+    }
+
+    /**
+     * 玩家数据的加载状态（不触发加载，不计入离线缓存统计）
+     */
+    public LoadState getLoadState(UUID playerUuid) {
+        if (states.containsKey(playerUuid) || offlineStates.contains(playerUuid) || emptyPlayers.peek(playerUuid)) {
+            return LoadState.READY;
+        }
+        return loadingPlayers.containsKey(playerUuid) ? LoadState.LOADING : LoadState.NOT_LOADED;
+    }
+
+    /**
+     * 玩家数据加载完成后得到状态快照
+     * 已加载时返回已完成的 Future；未加载时触发加载，正在加载时跟随同一次加载。
+     * 已知没有称号的玩家得到空快照；加载被取消（卸载、清空缓存）时结果为 null；
+     * 数据库查询失败或被拒绝时以异常完成，调用方应提示玩家稍后重试
+     */
+    public CompletableFuture<PlayerTitleState> whenLoaded(UUID playerUuid) {
+        PlayerTitleState state = loadedState(playerUuid);
+        if (state != null) {
+            return CompletableFuture.completedFuture(state);
+        }
+        PendingLoad pending = triggerAsyncLoad(playerUuid);
+        if (pending == null) {
+            // 并发情况下刚好加载完成
+            return CompletableFuture.completedFuture(loadedState(playerUuid));
+        }
+        return pending.future.thenApply(v -> loadedState(playerUuid));
+    }
+
+    /**
+     * 已加载的状态；已知没有称号时为空快照，未加载时为 null
+     */
+    private PlayerTitleState loadedState(UUID playerUuid) {
+        PlayerTitleState state = lookup(playerUuid);
+        if (state == null && emptyPlayers.peek(playerUuid)) {
+            return PlayerTitleState.empty();
+        }
+        return state;
+    }
+
+    /**
+     * 原子替换玩家状态
+     * 未加载但正在加载时，作废本次加载并重新加载，确保结果包含这次变更
+     */
+    private void mutate(UUID playerUuid, UnaryOperator<PlayerTitleState> mutation) {
+        // 获得称号等变更后不再视为无称号
+        emptyPlayers.remove(playerUuid);
+        PlayerTitleState updated = states.computeIfPresent(playerUuid, (uuid, state) -> mutation.apply(state));
+        if (updated == null) {
+            updated = offlineStates.computeIfPresent(playerUuid, mutation);
+        }
+        if (updated == null) {
+            PendingLoad stale = loadingPlayers.remove(playerUuid);
+            if (stale != null) {
+                PendingLoad restarted = startLoad(playerUuid, stale.future);
+                if (stale.pinned) {
+                    restarted.pinned = true;
+                }
+            }
+        }
+        renderCache.invalidate(playerUuid);
+    }
+
+    /**
+     * 查询玩家状态：先查在线缓存，再查离线缓存（记录命中/未命中）
+     */
+    private PlayerTitleState lookup(UUID playerUuid) {
+        PlayerTitleState state = states.get(playerUuid);
+        if (state != null) {
+            return state;
+        }
+        // 已知没有称号：按未加载返回，调用方得到默认值（无称号、数量 0），不计入离线缓存未命中
+        if (emptyPlayers.contains(playerUuid)) {
+            return null;
+        }
+        return offlineStates.get(playerUuid);
+    }
+
+    /**
+     * 玩家上线时把离线缓存中的数据转入在线缓存
+     * @return 是否转入
+     */
+    private boolean promote(UUID playerUuid) {
+        PlayerTitleState state = offlineStates.remove(playerUuid);
+        if (state == null) {
+            return false;
+        }
+        states.putIfAbsent(playerUuid, state);
+        return true;
     }
 
     /**
      * 触发异步加载玩家数据（如果尚未加载）
      */
-    private void triggerAsyncLoad(UUID playerUuid) {
+    private PendingLoad triggerAsyncLoad(UUID playerUuid) {
         // 检查是否正在加载或已有缓存
-        if (loadingPlayers.contains(playerUuid) || playerTitlesCache.containsKey(playerUuid)) {
-            return;
+        PendingLoad existing = loadingPlayers.get(playerUuid);
+        if (existing != null || states.containsKey(playerUuid) || offlineStates.contains(playerUuid)) {
+            return existing;
         }
+        // 已知没有称号的 UUID 不再查询
+        if (emptyPlayers.peek(playerUuid)) {
+            return null;
+        }
+        return startLoad(playerUuid, new CompletableFuture<>());
+    }
 
+    /**
+     * 开始一次加载，完成时通知给定的 Future
+     */
+    private PendingLoad startLoad(UUID playerUuid, CompletableFuture<Void> future) {
         // 标记为正在加载
-        if (!loadingPlayers.add(playerUuid)) {
-            return; // 并发情况下其他线程已经添加了
-        }
-
-        // 异步加载
-        repository.getPlayerTitles(playerUuid, titles -> {
-            Map<String, TitleData> titleMap = new ConcurrentHashMap<>();
-            for (TitleRepository.PlayerTitleEntry entry : titles) {
-                titleMap.put(entry.getTitleId(), entry.getTitleData());
-                if (entry.isOnUse()) {
-                    currentTitleCache.put(playerUuid, entry.getTitleData());
-                    currentTitleIdCache.put(playerUuid, entry.getTitleId());
-                }
+        long version = loadSequence.incrementAndGet();
+        PendingLoad pending = new PendingLoad(version, future);
+        PendingLoad existing = loadingPlayers.putIfAbsent(playerUuid, pending);
+        if (existing != null) {
+            // 并发情况下其他线程已经开始加载，跟随它完成
+            if (existing.future != future) {
+                existing.future.whenComplete((v, e) -> {
+                    if (e != null) {
+                        future.completeExceptionally(e);
+                    } else {
+                        future.complete(null);
+                    }
+                });
+            }
+            return existing;
+        }
+
+        // 异步加载（失败时同样结束这次加载，等待方不会一直挂起）
+        repository.getPlayerTitles(playerUuid).whenCompleteAsync((titles, error) -> {
+            if (error != null) {
+                failLoad(playerUuid, pending, error);
+            } else {
+                completeLoad(playerUuid, pending, titles);
+            }
+        }, plugin.getCallbackDispatcher().player(playerUuid));
+        return pending;
+    }
+
+    /**
+     * 预留一次加载（供合并加载使用）
+     * @return 新的加载；已加载或正在加载时返回 null
+     */
+    PendingLoad reserveLoad(UUID playerUuid) {
+        emptyPlayers.remove(playerUuid);
+        if (states.containsKey(playerUuid) || promote(playerUuid)) {
+            return null;
+        }
+        PendingLoad pending = new PendingLoad(loadSequence.incrementAndGet(), new CompletableFuture<>());
+        // 登录流程的加载，结果常驻
+        pending.pinned = true;
+        PendingLoad existing = loadingPlayers.putIfAbsent(playerUuid, pending);
+        if (existing != null) {
+            existing.pinned = true;
+            return null;
+        }
+        return pending;
+    }
+
+    /**
+     * 用数据库结果完成一次加载
+     */
+    void completeLoad(UUID playerUuid, PendingLoad pending, List<TitleRepository.PlayerTitleEntry> titles) {
+        Map<String, TitleData> titleMap = new HashMap<>();
+        String currentTitleId = null;
+        for (TitleRepository.PlayerTitleEntry entry : titles) {
+            titleMap.put(entry.getTitleId(), entry.getTitleData());
+            // 当前称号已在数据库线程上解码，解码失败的称号不作为当前称号显示
+            if (entry.isOnUse() && entry.getTitleData().isUsable()) {
+                currentTitleId = entry.getTitleId();
             }
-            playerTitlesCache.put(playerUuid, titleMap);
-            titleCountCache.put(playerUuid, titles.size());
-            loadingPlayers.remove(playerUuid);
-        });
+        }
+
+        // 加载期间被卸载或作废，丢弃过期结果
+        if (!loadingPlayers.remove(playerUuid, pending)) {
+            return;
+        }
+        PlayerTitleState state = PlayerTitleState.loaded(titleMap, currentTitleId, pending.version);
+        if (pending.pinned || plugin.getServer().getPlayer(playerUuid) != null) {
+            states.put(playerUuid, state);
+        } else if (titleMap.isEmpty()) {
+            // 没有任何称号的离线 UUID 只记入负缓存，不占用离线缓存的容量
+            emptyPlayers.add(playerUuid);
+        } else {
+            offlineStates.put(playerUuid, state);
+        }
+        renderCache.invalidate(playerUuid);
+        pending.future.complete(null);
+    }
+
+    /**
+     * 查询失败或被拒绝时结束一次加载：移出加载表（下次访问重新加载），以异常通知等待方
+     */
+    void failLoad(UUID playerUuid, PendingLoad pending, Throwable error) {
+        if (!loadingPlayers.remove(playerUuid, pending)) {
+            // 已被卸载或作废，等待方已由新的加载接管
+            return;
+        }
+        plugin.getLogger().warning("加载玩家 " + playerUuid + " 的称号数据失败: " + error.getMessage());
+        pending.future.completeExceptionally(error);
+    }
+
+    /**
+     * 玩家数据是否在在线玩家缓存中（在线、退出宽限时间内或已预加载）
+     */
+    public boolean isResident(UUID playerUuid) {
+        return states.containsKey(playerUuid);
     }
 
     /**
      * 检查玩家数据是否已加载到缓存
      */
     public boolean isLoaded(UUID playerUuid) {
-        return playerTitlesCache.containsKey(playerUuid);
+        return lookup(playerUuid) != null;
     }
 
     /**
@@ -172,12 +431,12 @@ public class TitleCacheManager {
      * 如果缓存中没有数据，触发异步加载并返回 false
      */
     public boolean hasTitle(UUID playerUuid, String titleId) {
-        if (!isLoaded(playerUuid)) {
+        PlayerTitleState state = lookup(playerUuid);
+        if (state == null) {
             triggerAsyncLoad(playerUuid);
             return false;
         }
-        Map<String, TitleData> titleMap = playerTitlesCache.get(playerUuid);
-        return titleMap != null && titleMap.containsKey(titleId);
+        return state.getTitles().containsKey(titleId);
     }
 
     /**
@@ -185,11 +444,12 @@ public class TitleCacheManager {
      * 如果缓存中没有数据，触发异步加载并返回 0
      */
     public int getTitleCount(UUID playerUuid) {
-        if (!isLoaded(playerUuid)) {
+        PlayerTitleState state = lookup(playerUuid);
+        if (state == null) {
             triggerAsyncLoad(playerUuid);
             return 0;
         }
-        return titleCountCache.getOrDefault(playerUuid, 0);
+        return state.getCount();
     }
 
     /**
@@ -204,10 +464,105 @@ public class TitleCacheManager {
      * 清空所有缓存
      */
     public void clearAll() {
-        playerTitlesCache.clear();
-        currentTitleCache.clear();
-        currentTitleIdCache.clear();
-        titleCountCache.clear();
+        states.clear();
+        offlineStates.clear();
+        emptyPlayers.clear();
+        loadingPlayers.values().forEach(pending -> pending.future.complete(null));
         loadingPlayers.clear();
+        renderCache.clear();
+    }
+
+    /**
+     * 重载配置后更新离线缓存的容量与存活时间
+     */
+    public void reloadConfig() {
+        ConfigManager config = plugin.getConfigManager();
+        offlineStates.configure(config.getOfflineCacheMaxSize(), config.getOfflineCacheTtlSeconds() * 1000L);
+        emptyPlayers.configure(config.getEmptyCacheMaxSize(), config.getEmptyCacheTtlSeconds() * 1000L);
+    }
+
+    /**
+     * 玩家获得了称号但没有经过缓存（如 CSV 导入直接写入数据库）时调用，使负缓存失效
+     */
+    public void invalidateEmpty(UUID playerUuid) {
+        emptyPlayers.remove(playerUuid);
+    }
+
+    /**
+     * 玩家数据的加载状态
+     */
+    public enum LoadState {
+        // 未加载，也没有进行中的加载
+        NOT_LOADED,
+        // 正在从数据库加载
+        LOADING,
+        // 已加载（包括已知没有称号）
+        READY
+    }
+
+    /**
+     * 离线缓存统计
+     */
+    public OfflineCacheStats getOfflineCacheStats() {
+        return new OfflineCacheStats(offlineStates.size(), offlineStates.getMaxSize(),
+                offlineStates.getHits(), offlineStates.getMisses(), offlineStates.getEvictions(),
+                emptyPlayers.size(), emptyPlayers.getHits());
+    }
+
+    /**
+     * 离线缓存统计快照
+     */
+    public static final class OfflineCacheStats {
+        private final int size;
+        private final int maxSize;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int emptySize;
+        private final long emptyHits;
+
+        OfflineCacheStats(int size, int maxSize, long hits, long misses, long evictions,
+                          int emptySize, long emptyHits) {
+            this.size = size;
+            this.maxSize = maxSize;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.emptySize = emptySize;
+            this.emptyHits = emptyHits;
+        }
+
+        public int getSize() { return size; }
+        public int getMaxSize() { return maxSize; }
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getEvictions() { return evictions; }
+        public int getEmptySize() { return emptySize; }
+        public long getEmptyHits() { return emptyHits; }
+
+        public double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : hits * 100.0 / total;
+        }
+    }
+
+    /**
+     * 进行中的加载
+     */
+    static final class PendingLoad {
+        private final long version;
+        private final CompletableFuture<Void> future;
+
+        // 加载结果是否常驻在线缓存（否则放入离线缓存）
+        private volatile boolean pinned;
+
+        PendingLoad(long version, CompletableFuture<Void> future) {
+            this.version = version;
+            this.future = future;
+        }
+
+        CompletableFuture<Void> getFuture() {
+            return future;
+        }
     }
 }
@@ -5,13 +5,17 @@ import dev.user.title.config.ConfigManager;
 import dev.user.title.database.TitleRepository;
 import dev.user.title.economy.EconomyManager;
 import dev.user.title.economy.PlayerPointsManager;
+import dev.user.title.model.PlayerTitleState;
 import dev.user.title.model.TitleData;
 import dev.user.title.model.TitleType;
+import dev.user.title.util.MessageUtil;
+import dev.user.title.util.SchedulerExecutors;
 import org.bukkit.entity.Player;
 
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 /**
@@ -23,6 +27,7 @@ public class TitleManager {
     private final ConfigManager configManager;
     private final TitleRepository repository;
     private final TitleCacheManager cacheManager;
+    private final TitleWriteBuffer writeBuffer;
     private final EconomyManager economyManager;
     private final PlayerPointsManager playerPointsManager;
 
@@ -31,6 +36,7 @@ public class TitleManager {
         this.configManager = plugin.getConfigManager();
         this.repository = plugin.getTitleRepository();
         this.cacheManager = plugin.getTitleCacheManager();
+        this.writeBuffer = plugin.getTitleWriteBuffer();
         this.economyManager = plugin.getEconomyManager();
         this.playerPointsManager = plugin.getPlayerPointsManager();
     }
@@ -43,10 +49,10 @@ public class TitleManager {
     }
 
     /**
-     * 玩家退出时清理缓存
+     * 玩家退出时写入未写入的修改（缓存由 PlayerDataLoader 在退出宽限时间后卸载）
      */
     public void onPlayerQuit(UUID playerUuid) {
-        cacheManager.unloadPlayer(playerUuid);
+        writeBuffer.flush(playerUuid);
     }
 
     /**
@@ -77,6 +83,40 @@ public class TitleManager {
         return cacheManager.getTitleCount(playerUuid);
     }
 
+    /**
+     * 玩家数据加载完成后得到状态快照（加载被取消时为 null，查询失败时以异常完成）
+     */
+    public CompletableFuture<PlayerTitleState> whenLoaded(UUID playerUuid) {
+        return cacheManager.whenLoaded(playerUuid);
+    }
+
+    /**
+     * 玩家数据加载完成后在玩家所在区域线程执行（已加载时直接在当前线程执行）
+     * 加载被取消时 state 为 null；查询失败时提示玩家稍后重试，不执行 action
+     */
+    public void whenLoaded(Player player, Consumer<PlayerTitleState> action) {
+        whenLoaded(player, action, () -> MessageUtil.send(player, configManager.getMessage("data-load-failed")));
+    }
+
+    /**
+     * 玩家数据加载完成后在玩家所在区域线程执行（已加载时直接在当前线程执行）
+     * 加载被取消时 state 为 null；查询失败时执行 onFailure
+     */
+    public void whenLoaded(Player player, Consumer<PlayerTitleState> action, Runnable onFailure) {
+        CompletableFuture<PlayerTitleState> future = cacheManager.whenLoaded(player.getUniqueId());
+        if (future.isDone() && !future.isCompletedExceptionally()) {
+            action.accept(future.join());
+            return;
+        }
+        future.whenCompleteAsync((state, error) -> {
+            if (error != null) {
+                onFailure.run();
+            } else {
+                action.accept(state);
+            }
+        }, SchedulerExecutors.entity(plugin, player));
+    }
+
     /**
      * 购买预设称号
      * @return 购买结果
@@ -91,21 +131,38 @@ public class TitleManager {
             return;
         }
 
-        // 检查是否已拥有
-        if (hasTitle(playerUuid, titleId)) {
-            callback.accept(PurchaseResult.ALREADY_OWNED);
-            return;
-        }
+        // 等待称号数据加载完成，避免加载期间误判为未拥有而重复扣款
+        whenLoaded(player, state -> {
+            if (state == null) {
+                callback.accept(PurchaseResult.DATABASE_ERROR);
+                return;
+            }
 
-        // 检查权限
-        if (titleData.requiresPermission() && !player.hasPermission(titleData.getPermission())) {
-            callback.accept(PurchaseResult.NO_PERMISSION);
-            return;
-        }
+            // 检查是否已拥有
+            if (state.getTitles().containsKey(titleId)) {
+                callback.accept(PurchaseResult.ALREADY_OWNED);
+                return;
+            }
 
-        // 检查价格类型并处理支付
-        boolean needMoney = titleData.getPriceMoney() > 0;
-        boolean needPoints = titleData.getPricePoints() > 0;
+            // 检查权限
+            if (titleData.requiresPermission() && !player.hasPermission(titleData.getPermission())) {
+                callback.accept(PurchaseResult.NO_PERMISSION);
+                return;
+            }
+
+            // 检查余额并支付，成功后给予称号
+            chargeAndGive(player, titleId, titleData, titleData.getPriceMoney(), titleData.getPricePoints(), callback);
+        }, () -> callback.accept(PurchaseResult.DATABASE_ERROR));
+    }
+
+    /**
+     * 检查余额、扣款，成功后给予称号
+     * 金币和点券都需要时先扣金币，点券扣除失败则退还金币
+     */
+    private void chargeAndGive(Player player, String titleId, TitleData titleData,
+                               double priceMoney, int pricePoints, Consumer<PurchaseResult> callback) {
+        boolean needMoney = priceMoney > 0;
+        boolean needPoints = pricePoints > 0;
 
         if (needMoney && !economyManager.isEnabled()) {
             callback.accept(PurchaseResult.ECONOMY_NOT_AVAILABLE);
@@ -118,23 +175,19 @@ public class TitleManager {
         }
 
         // 先检查余额
-        if (needMoney) {
-            if (!economyManager.hasEnough(player, titleData.getPriceMoney())) {
-                callback.accept(PurchaseResult.NOT_ENOUGH_MONEY);
-                return;
-            }
+        if (needMoney && !economyManager.hasEnough(player, priceMoney)) {
+            callback.accept(PurchaseResult.NOT_ENOUGH_MONEY);
+            return;
         }
 
-        if (needPoints) {
-            if (!playerPointsManager.hasEnoughPoints(player, titleData.getPricePoints())) {
-                callback.accept(PurchaseResult.NOT_ENOUGH_POINTS);
-                return;
-            }
+        if (needPoints && !playerPointsManager.hasEnoughPoints(player, pricePoints)) {
+            callback.accept(PurchaseResult.NOT_ENOUGH_POINTS);
+            return;
         }
 
         // 执行支付
         if (needMoney) {
-            economyManager.withdrawAsync(player, titleData.getPriceMoney(), success -> {
+            economyManager.withdrawAsync(player, priceMoney, success -> {
                 if (!success) {
                     callback.accept(PurchaseResult.PAYMENT_FAILED);
                     return;
@@ -142,45 +195,63 @@ public class TitleManager {
 
                 // 扣除点券（如果需要）
                 if (needPoints) {
-                    playerPointsManager.takePointsAsync(player, titleData.getPricePoints(), pointsSuccess -> {
+                    playerPointsManager.takePointsAsync(player, pricePoints, pointsSuccess -> {
                         if (!pointsSuccess) {
                             // 退还金币
-                            economyManager.deposit(player, titleData.getPriceMoney());
+                            economyManager.deposit(player, priceMoney);
                             callback.accept(PurchaseResult.PAYMENT_FAILED);
                             return;
                         }
                         // 支付成功，给予称号
-                        giveTitleToPlayer(playerUuid, titleId, titleData, callback);
+                        giveTitleToPlayer(player, titleId, titleData, priceMoney, pricePoints, callback);
                     });
                 } else {
-                    giveTitleToPlayer(playerUuid, titleId, titleData, callback);
+                    giveTitleToPlayer(player, titleId, titleData, priceMoney, 0, callback);
                 }
             });
         } else if (needPoints) {
-            playerPointsManager.takePointsAsync(player, titleData.getPricePoints(), success -> {
+            playerPointsManager.takePointsAsync(player, pricePoints, success -> {
                 if (!success) {
                     callback.accept(PurchaseResult.PAYMENT_FAILED);
                     return;
                 }
-                giveTitleToPlayer(playerUuid, titleId, titleData, callback);
+                giveTitleToPlayer(player, titleId, titleData, 0, pricePoints, callback);
             });
         } else {
             // 免费称号
-            giveTitleToPlayer(playerUuid, titleId, titleData, callback);
+            giveTitleToPlayer(player, titleId, titleData, 0, 0, callback);
         }
     }
 
-    private void giveTitleToPlayer(UUID playerUuid, String titleId, TitleData titleData, Consumer<PurchaseResult> callback) {
-        // 创建副本，避免多个玩家共享同一个 TitleData 对象
-        TitleData copy = titleData.copy();
-        repository.addPlayerTitle(playerUuid, titleId, copy, success -> {
-            if (success) {
-                cacheManager.addPlayerTitle(playerUuid, titleId, copy);
+    /**
+     * 支付完成后写入称号；写入失败或被数据库队列拒绝时退还已支付的金币和点券
+     */
+    private void giveTitleToPlayer(Player player, String titleId, TitleData titleData,
+                                   double paidMoney, int paidPoints, Consumer<PurchaseResult> callback) {
+        UUID playerUuid = player.getUniqueId();
+        TitleData owned = toOwnedTitle(titleId, titleData);
+        writeBuffer.discard(playerUuid, titleId);
+        repository.addPlayerTitle(playerUuid, titleId, owned).whenCompleteAsync((success, error) -> {
+            if (error == null && Boolean.TRUE.equals(success)) {
+                cacheManager.addPlayerTitle(playerUuid, titleId, owned);
                 callback.accept(PurchaseResult.SUCCESS);
-            } else {
-                callback.accept(PurchaseResult.DATABASE_ERROR);
+                return;
             }
-        });
+            refund(player, paidMoney, paidPoints);
+            callback.accept(PurchaseResult.DATABASE_ERROR);
+        }, plugin.getCallbackDispatcher().player(playerUuid));
+    }
+
+    /**
+     * 退还已支付的费用
+     */
+    private void refund(Player player, double money, int points) {
+        if (money > 0 && !economyManager.deposit(player, money)) {
+            plugin.getLogger().warning("退还玩家 " + player.getName() + " 的金币失败: " + money);
+        }
+        if (points > 0 && !playerPointsManager.givePoints(player, points)) {
+            plugin.getLogger().warning("退还玩家 " + player.getName() + " 的点券失败: " + points);
+        }
     }
 
     /**
@@ -222,62 +293,7 @@ public class TitleManager {
         double priceMoney = configManager.getCustomTitlePriceMoney();
         int pricePoints = configManager.getCustomTitlePricePoints();
 
-        // 处理支付
-        boolean needMoney = priceMoney > 0;
-        boolean needPoints = pricePoints > 0;
-
-        if (needMoney && !economyManager.isEnabled()) {
-            callback.accept(PurchaseResult.ECONOMY_NOT_AVAILABLE);
-            return;
-        }
-
-        if (needPoints && !playerPointsManager.isEnabled()) {
-            callback.accept(PurchaseResult.POINTS_NOT_AVAILABLE);
-            return;
-        }
-
-        // 检查余额
-        if (needMoney && !economyManager.hasEnough(player, priceMoney)) {
-            callback.accept(PurchaseResult.NOT_ENOUGH_MONEY);
-            return;
-        }
-
-        if (needPoints && !playerPointsManager.hasEnoughPoints(player, pricePoints)) {
-            callback.accept(PurchaseResult.NOT_ENOUGH_POINTS);
-            return;
-        }
-
-        // 执行支付
-        if (needMoney) {
-            economyManager.withdrawAsync(player, priceMoney, success -> {
-                if (!success) {
-                    callback.accept(PurchaseResult.PAYMENT_FAILED);
-                    return;
-                }
-                if (needPoints) {
-                    playerPointsManager.takePointsAsync(player, pricePoints, pointsSuccess -> {
-                        if (!pointsSuccess) {
-                            economyManager.deposit(player, priceMoney);
-                            callback.accept(PurchaseResult.PAYMENT_FAILED);
-                            return;
-                        }
-                        giveTitleToPlayer(playerUuid, customTitleId, titleData, callback);
-                    });
-                } else {
-                    giveTitleToPlayer(playerUuid, customTitleId, titleData, callback);
-                }
-            });
-        } else if (needPoints) {
-            playerPointsManager.takePointsAsync(player, pricePoints, success -> {
-                if (!success) {
-                    callback.accept(PurchaseResult.PAYMENT_FAILED);
-                    return;
-                }
-                giveTitleToPlayer(playerUuid, customTitleId, titleData, callback);
-            });
-        } else {
-            giveTitleToPlayer(playerUuid, customTitleId, titleData, callback);
-        }
+        chargeAndGive(player, customTitleId, titleData, priceMoney, pricePoints, callback);
     }
 
     /**
@@ -330,11 +346,15 @@ public class TitleManager {
             return;
         }
 
-        // 异步检查数据库
-        repository.titleIdExists(playerUuid, titleId, exists -> {
+        // 异步检查数据库，结果回到玩家所在区域线程继续
+        repository.titleIdExists(playerUuid, titleId).handleAsync((exists, error) -> {
+            if (error != null) {
+                callback.accept(PurchaseResult.DATABASE_ERROR);
+                return null;
+            }
             if (exists) {
                 callback.accept(PurchaseResult.NAME_DUPLICATE);
-                return;
+                return null;
             }
 
             // 创建称号数据
@@ -346,65 +366,10 @@ public class TitleManager {
                     ""
             );
 
-            double priceMoney = configManager.getCustomTitlePriceMoney();
-            int pricePoints = configManager.getCustomTitlePricePoints();
-
-            boolean needMoney = priceMoney > 0;
-            boolean needPoints = pricePoints > 0;
-
-            if (needMoney && !economyManager.isEnabled()) {
-                callback.accept(PurchaseResult.ECONOMY_NOT_AVAILABLE);
-                return;
-            }
-
-            if (needPoints && !playerPointsManager.isEnabled()) {
-                callback.accept(PurchaseResult.POINTS_NOT_AVAILABLE);
-                return;
-            }
-
-            // 检查余额
-            if (needMoney && !economyManager.hasEnough(player, priceMoney)) {
-                callback.accept(PurchaseResult.NOT_ENOUGH_MONEY);
-                return;
-            }
-
-            if (needPoints && !playerPointsManager.hasEnoughPoints(player, pricePoints)) {
-                callback.accept(PurchaseResult.NOT_ENOUGH_POINTS);
-                return;
-            }
-
-            // 执行支付
-            if (needMoney) {
-                economyManager.withdrawAsync(player, priceMoney, success -> {
-                    if (!success) {
-                        callback.accept(PurchaseResult.PAYMENT_FAILED);
-                        return;
-                    }
-                    if (needPoints) {
-                        playerPointsManager.takePointsAsync(player, pricePoints, pointsSuccess -> {
-                            if (!pointsSuccess) {
-                                economyManager.deposit(player, priceMoney);
-                                callback.accept(PurchaseResult.PAYMENT_FAILED);
-                                return;
-                            }
-                            giveTitleToPlayer(playerUuid, titleId, titleData, callback);
-                        });
-                    } else {
-                        giveTitleToPlayer(playerUuid, titleId, titleData, callback);
-                    }
-                });
-            } else if (needPoints) {
-                playerPointsManager.takePointsAsync(player, pricePoints, success -> {
-                    if (!success) {
-                        callback.accept(PurchaseResult.PAYMENT_FAILED);
-                        return;
-                    }
-                    giveTitleToPlayer(playerUuid, titleId, titleData, callback);
-                });
-            } else {
-                giveTitleToPlayer(playerUuid, titleId, titleData, callback);
-            }
-        });
+            chargeAndGive(player, titleId, titleData,
+                    configManager.getCustomTitlePriceMoney(), configManager.getCustomTitlePricePoints(), callback);
+            return null;
+        }, SchedulerExecutors.entity(plugin, player));
     }
 
     /**
@@ -466,10 +431,14 @@ public class TitleManager {
             return;
         }
 
-        repository.titleIdExists(playerUuid, titleId, exists -> {
+        repository.titleIdExists(playerUuid, titleId).handleAsync((exists, error) -> {
+            if (error != null) {
+                callback.accept(PurchaseResult.DATABASE_ERROR);
+                return null;
+            }
             if (exists) {
                 callback.accept(PurchaseResult.NAME_DUPLICATE);
-                return;
+                return null;
             }
 
             // 创建动态称号数据
@@ -479,64 +448,10 @@ public class TitleManager {
             titleData.setBracketRight(configManager.getDefaultBracketRight());
             titleData.setType(TitleType.CUSTOM);
 
-            double priceMoney = configManager.getCustomTitleDynamicPriceMoney();
-            int pricePoints = configManager.getCustomTitleDynamicPricePoints();
-
-            boolean needMoney = priceMoney > 0;
-            boolean needPoints = pricePoints > 0;
-
-            if (needMoney && !economyManager.isEnabled()) {
-                callback.accept(PurchaseResult.ECONOMY_NOT_AVAILABLE);
-                return;
-            }
-
-            if (needPoints && !playerPointsManager.isEnabled()) {
-                callback.accept(PurchaseResult.POINTS_NOT_AVAILABLE);
-                return;
-            }
-
-            if (needMoney && !economyManager.hasEnough(player, priceMoney)) {
-                callback.accept(PurchaseResult.NOT_ENOUGH_MONEY);
-                return;
-            }
-
-            if (needPoints && !playerPointsManager.hasEnoughPoints(player, pricePoints)) {
-                callback.accept(PurchaseResult.NOT_ENOUGH_POINTS);
-                return;
-            }
-
-            // 执行支付
-            if (needMoney) {
-                economyManager.withdrawAsync(player, priceMoney, success -> {
-                    if (!success) {
-                        callback.accept(PurchaseResult.PAYMENT_FAILED);
-                        return;
-                    }
-                    if (needPoints) {
-                        playerPointsManager.takePointsAsync(player, pricePoints, pointsSuccess -> {
-                            if (!pointsSuccess) {
-                                economyManager.deposit(player, priceMoney);
-                                callback.accept(PurchaseResult.PAYMENT_FAILED);
-                                return;
-                            }
-                            giveTitleToPlayer(playerUuid, titleId, titleData, callback);
-                        });
-                    } else {
-                        giveTitleToPlayer(playerUuid, titleId, titleData, callback);
-                    }
-                });
-            } else if (needPoints) {
-                playerPointsManager.takePointsAsync(player, pricePoints, success -> {
-                    if (!success) {
-                        callback.accept(PurchaseResult.PAYMENT_FAILED);
-                        return;
-                    }
-                    giveTitleToPlayer(playerUuid, titleId, titleData, callback);
-                });
-            } else {
-                giveTitleToPlayer(playerUuid, titleId, titleData, callback);
-            }
-        });
+            chargeAndGive(player, titleId, titleData,
+                    configManager.getCustomTitleDynamicPriceMoney(), configManager.getCustomTitleDynamicPricePoints(), callback);
+            return null;
+        }, SchedulerExecutors.entity(plugin, player));
     }
 
     /**
@@ -553,27 +468,36 @@ public class TitleManager {
     }
 
     /**
-     * 设置玩家当前使用的称号
+     * 检查称号ID是否已存在（Future 版本，缓存命中时直接完成）
      */
-    public void setCurrentTitle(UUID playerUuid, String titleId, Consumer<Boolean> callback) {
-        // 检查是否拥有该称号
-        if (!hasTitle(playerUuid, titleId)) {
-            callback.accept(false);
-            return;
-        }
-
-        TitleData titleData = cacheManager.getPlayerTitles(playerUuid).get(titleId);
-        if (titleData == null) {
-            callback.accept(false);
-            return;
+    public CompletableFuture<Boolean> checkTitleIdExists(UUID playerUuid, String titleId) {
+        if (cacheManager.hasTitle(playerUuid, titleId)) {
+            return CompletableFuture.completedFuture(true);
         }
+        return repository.titleIdExists(playerUuid, titleId);
+    }
 
-        repository.setCurrentTitle(playerUuid, titleId, success -> {
-            if (success) {
-                cacheManager.setCurrentTitle(playerUuid, titleId, titleData);
+    /**
+     * 设置玩家当前使用的称号
+     */
+    public void setCurrentTitle(Player player, String titleId, Consumer<Boolean> callback) {
+        UUID playerUuid = player.getUniqueId();
+        // 等待称号数据加载完成后（在玩家所在区域线程）检查是否拥有该称号，加载失败按设置失败处理
+        whenLoaded(player, state -> {
+            // 称号数据无法解码，同样按设置失败处理
+            TitleData titleData = state != null ? state.getTitles().get(titleId) : null;
+            if (titleData == null || !titleData.isUsable()) {
+                callback.accept(false);
+                return;
             }
-            callback.accept(success);
-        });
+
+            repository.setCurrentTitle(playerUuid, titleId, success -> {
+                if (success) {
+                    cacheManager.setCurrentTitle(playerUuid, titleId, titleData);
+                }
+                callback.accept(success);
+            });
+        }, () -> callback.accept(false));
     }
 
     /**
@@ -592,14 +516,28 @@ public class TitleManager {
      * 给予玩家称号（管理员命令）
      */
     public void giveTitle(UUID playerUuid, String titleId, TitleData titleData, Consumer<Boolean> callback) {
-        repository.addPlayerTitle(playerUuid, titleId, titleData, success -> {
+        TitleData owned = toOwnedTitle(titleId, titleData);
+        writeBuffer.discard(playerUuid, titleId);
+        repository.addPlayerTitle(playerUuid, titleId, owned, success -> {
             if (success) {
-                cacheManager.addPlayerTitle(playerUuid, titleId, titleData);
+                cacheManager.addPlayerTitle(playerUuid, titleId, owned);
             }
             callback.accept(success);
         });
     }
 
+    /**
+     * 生成玩家持有的称号数据
+     * 预设称号使用共享预设定义的视图（不复制内容），其他称号创建副本，
+     * 避免多个玩家共享同一个可修改的 TitleData 对象
+     */
+    private TitleData toOwnedTitle(String titleId, TitleData titleData) {
+        if (titleData.getType() == TitleType.PRESET && configManager.getPresetTitle(titleId) != null) {
+            return configManager.createPresetView(titleId, null, null);
+        }
+        return titleData.copy();
+    }
+
     /**
      * 获取所有预设称号
      */
@@ -625,6 +563,20 @@ public class TitleManager {
      * 更新玩家称号数据（修改边框等）
      */
     public void updatePlayerTitleData(UUID playerUuid, String titleId, TitleData titleData, Consumer<Boolean> callback) {
+        // 无法解码的称号只有回退数据，不能覆盖数据库中的原始数据
+        if (!titleData.isUsable()) {
+            callback.accept(false);
+            return;
+        }
+
+        // 延迟写入：先更新缓存，数据库写入合并后批量执行
+        if (writeBuffer.isEnabled()) {
+            cacheManager.addPlayerTitle(playerUuid, titleId, titleData);
+            writeBuffer.write(playerUuid, titleId, titleData);
+            callback.accept(true);
+            return;
+        }
+
         // 更新数据库
         repository.addPlayerTitle(playerUuid, titleId, titleData, success -> {
             if (success) {
@@ -635,6 +587,20 @@ public class TitleManager {
         });
     }
 
+    /**
+     * 删除玩家称号（丢弃未写入的修改）
+     */
+    public void removePlayerTitle(UUID playerUuid, String titleId, Consumer<Boolean> callback) {
+        writeBuffer.discard(playerUuid, titleId);
+        repository.removePlayerTitle(playerUuid, titleId, success -> {
+            if (success) {
+                // 从缓存中移除（如果是当前使用的称号会一并清除）
+                cacheManager.removePlayerTitle(playerUuid, titleId);
+            }
+            callback.accept(success);
+        });
+    }
+
     // ==================== 购买结果枚举 ====================
 
     public enum PurchaseResult {
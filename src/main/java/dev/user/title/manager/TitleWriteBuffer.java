@@ -0,0 +1,171 @@
+package dev.user.title.manager;
+
+import dev.user.title.SimpleTitlePlugin;
+import dev.user.title.config.ConfigManager;
+import dev.user.title.database.TitleRepository;
+import dev.user.title.model.PlayerTitleState;
+import dev.user.title.model.TitleData;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 称号数据延迟写入缓冲
+ * 修改称号数据（如切换边框）时先更新缓存，数据库写入在窗口内合并：
+ * 同一 (玩家, 称号) 的多次修改只写最后一次，同一玩家的多行写入合并为一次 JDBC 批处理。
+ * 玩家退出和插件关闭时保证写入
+ *
+ * 写入失败（或被数据库队列拒绝）时放回缓冲，下次刷新重试；连续失败达到上限后放弃，
+ * 并重新加载该玩家的缓存，使缓存与数据库一致
+ */
+public class TitleWriteBuffer {
+
+    // 同一玩家的写入连续失败多少次后放弃
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final SimpleTitlePlugin plugin;
+    private final TitleRepository repository;
+    private final TitleCacheManager cacheManager;
+
+    // 待写入的修改: playerUuid -> (titleId -> TitleData)
+    private final Map<UUID, Map<String, TitleData>> pendingWrites = new ConcurrentHashMap<>();
+
+    // 写入连续失败的次数: playerUuid -> 次数
+    private final Map<UUID, Integer> failedAttempts = new ConcurrentHashMap<>();
+
+    // 定时刷新任务
+    private volatile ScheduledTask flushTask;
+
+    public TitleWriteBuffer(SimpleTitlePlugin plugin) {
+        this.plugin = plugin;
+        this.repository = plugin.getTitleRepository();
+        this.cacheManager = plugin.getTitleCacheManager();
+    }
+
+    /**
+     * 启动定时刷新任务
+     */
+    public void start() {
+        ConfigManager config = plugin.getConfigManager();
+        if (!config.isWriteBehindEnabled()) {
+            return;
+        }
+        long windowMs = Math.max(50, config.getWriteBehindWindowMs());
+        flushTask = plugin.getServer().getAsyncScheduler().runAtFixedRate(plugin, task -> flushAll(),
+                windowMs, windowMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止定时任务并写入所有待写数据
+     */
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        flushAll();
+    }
+
+    /**
+     * 是否启用延迟写入
+     */
+    public boolean isEnabled() {
+        return flushTask != null;
+    }
+
+    /**
+     * 记录一次修改（覆盖同一称号之前未写入的修改）
+     * 保存副本，调用方之后修改原对象不影响待写数据
+     */
+    public void write(UUID playerUuid, String titleId, TitleData titleData) {
+        TitleData snapshot = titleData.copy();
+        // 所有修改都在 compute 内完成，flush 取走的 Map 之后不会再被修改
+        pendingWrites.compute(playerUuid, (uuid, writes) -> {
+            if (writes == null) {
+                writes = new LinkedHashMap<>();
+            }
+            writes.put(titleId, snapshot);
+            return writes;
+        });
+    }
+
+    /**
+     * 丢弃某个称号未写入的修改（称号被删除或被整体覆盖时调用）
+     */
+    public void discard(UUID playerUuid, String titleId) {
+        pendingWrites.computeIfPresent(playerUuid, (uuid, writes) -> {
+            writes.remove(titleId);
+            return writes.isEmpty() ? null : writes;
+        });
+    }
+
+    /**
+     * 立即写入玩家所有未写入的修改（玩家退出时调用）
+     */
+    public void flush(UUID playerUuid) {
+        Map<String, TitleData> writes = pendingWrites.remove(playerUuid);
+        if (writes == null || writes.isEmpty()) {
+            return;
+        }
+        // 以玩家为顺序键提交，保证与该玩家之后的操作（如删除）保持顺序
+        repository.upsertPlayerTitles(playerUuid, writes).whenCompleteAsync((rows, error) -> {
+            if (error == null) {
+                failedAttempts.remove(playerUuid);
+            } else {
+                onFlushFailed(playerUuid, writes, error);
+            }
+        }, plugin.getCallbackDispatcher().player(playerUuid));
+    }
+
+    /**
+     * 写入失败：未达到上限时放回缓冲等待重试，否则放弃并重新加载缓存
+     */
+    private void onFlushFailed(UUID playerUuid, Map<String, TitleData> writes, Throwable error) {
+        int attempts = failedAttempts.merge(playerUuid, 1, Integer::sum);
+        if (attempts >= MAX_ATTEMPTS) {
+            failedAttempts.remove(playerUuid);
+            plugin.getLogger().severe("玩家 " + playerUuid + " 的 " + writes.size() + " 个称号修改连续 " + attempts
+                    + " 次写入失败，已放弃并重新加载缓存: " + error.getMessage());
+            cacheManager.refresh(playerUuid);
+            return;
+        }
+        plugin.getLogger().warning("玩家 " + playerUuid + " 的称号修改写入失败（第 " + attempts + " 次），稍后重试: "
+                + error.getMessage());
+
+        // 失败期间被删除的称号不再写回；之后的新修改覆盖失败的旧修改
+        PlayerTitleState state = cacheManager.getState(playerUuid);
+        Map<String, TitleData> retry = new LinkedHashMap<>();
+        writes.forEach((titleId, titleData) -> {
+            if (state == null || state.getTitles().containsKey(titleId)) {
+                retry.put(titleId, titleData);
+            }
+        });
+        if (retry.isEmpty()) {
+            failedAttempts.remove(playerUuid);
+            return;
+        }
+        pendingWrites.compute(playerUuid, (uuid, current) -> {
+            if (current != null) {
+                retry.putAll(current);
+            }
+            return retry;
+        });
+        if (flushTask == null) {
+            // 未启用定时刷新（或已关闭）时立即重试
+            flush(playerUuid);
+        }
+    }
+
+    /**
+     * 立即写入所有未写入的修改
+     */
+    public void flushAll() {
+        for (UUID playerUuid : pendingWrites.keySet()) {
+            flush(playerUuid);
+        }
+    }
+}
@@ -16,6 +16,7 @@ public class BracketData {
     private String permission;
     private String category;
     private boolean isDefault; // 是否为默认边框（所有玩家拥有）
+    private int ordinal; // 边框序号（玩家边框位图中的位置），加载时分配
 
     public BracketData(String bracketId) {
         this.bracketId = bracketId;
@@ -27,6 +28,7 @@ public class BracketData {
         this.permission = null;
         this.category = "default";
         this.isDefault = false;
+        this.ordinal = -1;
     }
 
     // ==================== Getters & Setters ====================
@@ -99,6 +101,14 @@ public class BracketData {
         isDefault = aDefault;
     }
 
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    public void setOrdinal(int ordinal) {
+        this.ordinal = ordinal;
+    }
+
     // ==================== Helper Methods ====================
 
     /**
@@ -0,0 +1,112 @@
+package dev.user.title.model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 玩家称号状态快照（不可变）
+ * 拥有的称号、当前称号ID与数据、称号数量、加载版本作为一个整体原子替换，
+ * 读取方一次查表即可得到一致的视图
+ */
+public final class PlayerTitleState {
+
+    // 没有任何称号的玩家共用的快照
+    private static final PlayerTitleState EMPTY = new PlayerTitleState(Map.of(), null, null, 0L);
+
+    private final Map<String, TitleData> titles;
+    private final String currentTitleId;
+    private final TitleData currentTitle;
+    private final long loadVersion;
+
+    private PlayerTitleState(Map<String, TitleData> titles, String currentTitleId, TitleData currentTitle,
+                             long loadVersion) {
+        this.titles = titles;
+        this.currentTitleId = currentTitleId;
+        this.currentTitle = currentTitle;
+        this.loadVersion = loadVersion;
+    }
+
+    /**
+     * 没有任何称号的快照（已知无称号的玩家使用，不占用缓存）
+     */
+    public static PlayerTitleState empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 从数据库加载结果创建快照
+     * @param titles 拥有的称号（调用方不再修改）
+     * @param currentTitleId 当前使用的称号ID，可为 null
+     */
+    public static PlayerTitleState loaded(Map<String, TitleData> titles, String currentTitleId, long loadVersion) {
+        TitleData current = currentTitleId != null ? titles.get(currentTitleId) : null;
+        return new PlayerTitleState(Collections.unmodifiableMap(titles),
+                current != null ? currentTitleId : null, current, loadVersion);
+    }
+
+    /**
+     * 添加或替换一个称号
+     */
+    public PlayerTitleState withTitle(String titleId, TitleData titleData) {
+        Map<String, TitleData> copy = new HashMap<>(titles);
+        copy.put(titleId, titleData);
+        TitleData current = titleId.equals(currentTitleId) ? titleData : currentTitle;
+        return new PlayerTitleState(Collections.unmodifiableMap(copy), currentTitleId, current, loadVersion);
+    }
+
+    /**
+     * 移除一个称号（如果是当前称号则一并清除）
+     */
+    public PlayerTitleState withoutTitle(String titleId) {
+        if (!titles.containsKey(titleId)) {
+            return this;
+        }
+        Map<String, TitleData> copy = new HashMap<>(titles);
+        copy.remove(titleId);
+        if (titleId.equals(currentTitleId)) {
+            return new PlayerTitleState(Collections.unmodifiableMap(copy), null, null, loadVersion);
+        }
+        return new PlayerTitleState(Collections.unmodifiableMap(copy), currentTitleId, currentTitle, loadVersion);
+    }
+
+    /**
+     * 设置当前使用的称号（优先使用已拥有称号中的数据）
+     */
+    public PlayerTitleState withCurrent(String titleId, TitleData titleData) {
+        TitleData owned = titles.get(titleId);
+        return new PlayerTitleState(titles, titleId, owned != null ? owned : titleData, loadVersion);
+    }
+
+    /**
+     * 清除当前使用的称号
+     */
+    public PlayerTitleState withoutCurrent() {
+        if (currentTitleId == null) {
+            return this;
+        }
+        return new PlayerTitleState(titles, null, null, loadVersion);
+    }
+
+    // ==================== Getters ====================
+
+    public Map<String, TitleData> getTitles() {
+        return titles;
+    }
+
+    public String getCurrentTitleId() {
+        return currentTitleId;
+    }
+
+    public TitleData getCurrentTitle() {
+        return currentTitle;
+    }
+
+    public int getCount() {
+        return titles.size();
+    }
+
+    public long getLoadVersion() {
+        return loadVersion;
+    }
+}
@@ -0,0 +1,216 @@
+package dev.user.title.model;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 玩家拥有的预设称号（享元）
+ * 不保存称号内容，只保存预设ID和玩家自己选择的边框；其余字段每次读取时取自当前加载的预设，
+ * 所有拥有者共享同一份预设定义，titles.yml 重载后自动生效。
+ * 预设被删除后以称号ID作为内容显示，重新添加后恢复
+ */
+public final class PresetTitleView extends TitleData {
+
+    private static final String DEFAULT_BRACKET_LEFT = "[";
+    private static final String DEFAULT_BRACKET_RIGHT = "]";
+
+    private final String presetId;
+
+    // 预设目录（所有视图共享同一个查找函数）
+    private final Function<String, TitleData> presets;
+
+    // 玩家选择的边框，null 表示使用预设的边框
+    private volatile String bracketLeft;
+    private volatile String bracketRight;
+
+    public PresetTitleView(String presetId, Function<String, TitleData> presets,
+                           String bracketLeft, String bracketRight) {
+        super(true);
+        this.presetId = presetId;
+        this.presets = presets;
+        this.bracketLeft = bracketLeft;
+        this.bracketRight = bracketRight;
+    }
+
+    public String getPresetId() {
+        return presetId;
+    }
+
+    /**
+     * 当前的预设定义，预设已被删除时返回 null
+     */
+    public TitleData getPreset() {
+        return presets.apply(presetId);
+    }
+
+    /**
+     * 玩家选择的左边框，未选择时为 null
+     */
+    public String getBracketLeftOverride() {
+        return bracketLeft;
+    }
+
+    /**
+     * 玩家选择的右边框，未选择时为 null
+     */
+    public String getBracketRightOverride() {
+        return bracketRight;
+    }
+
+    // ==================== 取自预设的字段 ====================
+
+    @Override
+    public List<String> getContents() {
+        TitleData preset = getPreset();
+        return preset != null ? preset.getContents() : List.of(presetId);
+    }
+
+    @Override
+    public String getBracketLeft() {
+        if (bracketLeft != null) {
+            return bracketLeft;
+        }
+        TitleData preset = getPreset();
+        return preset != null ? preset.getBracketLeft() : DEFAULT_BRACKET_LEFT;
+    }
+
+    @Override
+    public void setBracketLeft(String bracketLeft) {
+        this.bracketLeft = bracketLeft;
+    }
+
+    @Override
+    public String getBracketRight() {
+        if (bracketRight != null) {
+            return bracketRight;
+        }
+        TitleData preset = getPreset();
+        return preset != null ? preset.getBracketRight() : DEFAULT_BRACKET_RIGHT;
+    }
+
+    @Override
+    public void setBracketRight(String bracketRight) {
+        this.bracketRight = bracketRight;
+    }
+
+    @Override
+    public String getPrefix() {
+        TitleData preset = getPreset();
+        return preset != null ? preset.getPrefix() : "";
+    }
+
+    @Override
+    public String getSuffix() {
+        TitleData preset = getPreset();
+        return preset != null ? preset.getSuffix() : "";
+    }
+
+    @Override
+    public TitleType getType() {
+        return TitleType.PRESET;
+    }
+
+    @Override
+    public String getRawDisplayName() {
+        TitleData preset = getPreset();
+        return preset != null ? preset.getRawDisplayName() : "";
+    }
+
+    @Override
+    protected String getDisplayNameOrNull() {
+        TitleData preset = getPreset();
+        return preset != null ? preset.getDisplayNameOrNull() : null;
+    }
+
+    @Override
+    public double getPriceMoney() {
+        TitleData preset = getPreset();
+        return preset != null ? preset.getPriceMoney() : 0;
+    }
+
+    @Override
+    public int getPricePoints() {
+        TitleData preset = getPreset();
+        return preset != null ? preset.getPricePoints() : 0;
+    }
+
+    @Override
+    public String getPermission() {
+        TitleData preset = getPreset();
+        return preset != null ? preset.getPermission() : null;
+    }
+
+    @Override
+    public int getSlot() {
+        TitleData preset = getPreset();
+        return preset != null ? preset.getSlot() : 0;
+    }
+
+    @Override
+    public String getCategory() {
+        TitleData preset = getPreset();
+        return preset != null ? preset.getCategory() : "default";
+    }
+
+    // ==================== 预设字段不可修改 ====================
+
+    @Override
+    public void setContents(List<String> contents) {
+        throw new UnsupportedOperationException("预设称号的内容取自 titles.yml，不能单独修改");
+    }
+
+    @Override
+    public void setPrefix(String prefix) {
+        throw new UnsupportedOperationException("预设称号的前缀取自 titles.yml，不能单独修改");
+    }
+
+    @Override
+    public void setSuffix(String suffix) {
+        throw new UnsupportedOperationException("预设称号的后缀取自 titles.yml，不能单独修改");
+    }
+
+    @Override
+    public void setType(TitleType type) {
+        throw new UnsupportedOperationException("预设称号的类型不能修改");
+    }
+
+    @Override
+    public void setDisplayName(String displayName) {
+        throw new UnsupportedOperationException("预设称号的名称取自 titles.yml，不能单独修改");
+    }
+
+    @Override
+    public void setPriceMoney(double priceMoney) {
+        throw new UnsupportedOperationException("预设称号的价格取自 titles.yml，不能单独修改");
+    }
+
+    @Override
+    public void setPricePoints(int pricePoints) {
+        throw new UnsupportedOperationException("预设称号的价格取自 titles.yml，不能单独修改");
+    }
+
+    @Override
+    public void setPermission(String permission) {
+        throw new UnsupportedOperationException("预设称号的权限取自 titles.yml，不能单独修改");
+    }
+
+    @Override
+    public void setSlot(int slot) {
+        throw new UnsupportedOperationException("预设称号的位置取自 titles.yml，不能单独修改");
+    }
+
+    @Override
+    public void setCategory(String category) {
+        throw new UnsupportedOperationException("预设称号的分类取自 titles.yml，不能单独修改");
+    }
+
+    // ==================== 复制 ====================
+
+    /**
+     * 复制视图（只复制边框选择，仍共享预设定义）
+     */
+    @Override
+    public PresetTitleView copy() {
+        return new PresetTitleView(presetId, presets, bracketLeft, bracketRight);
+    }
+}
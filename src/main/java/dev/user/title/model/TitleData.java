@@ -1,23 +1,15 @@
 package dev.user.title.model;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.annotations.SerializedName;
-
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 /**
- * 称号数据模型 - 负责所有 JSON 解析
- * 统一用于玩家称号和预设称号
+ * 称号数据模型
+ * 统一用于玩家称号和预设称号，JSON 编解码见 TitleDataCodec
  */
 public class TitleData {
 
-    private static final Gson GSON = new GsonBuilder()
-            .disableHtmlEscaping()
-            .create();
-
     // ==================== 基础字段（所有称号共用） ====================
 
     /**
@@ -30,13 +22,11 @@ public class TitleData {
     /**
      * 左边框
      */
-    @SerializedName("bracketLeft")
     private String bracketLeft;
 
     /**
      * 右边框
      */
-    @SerializedName("bracketRight")
     private String bracketRight;
 
     /**
@@ -59,19 +49,16 @@ public class TitleData {
     /**
      * 显示名称（商店显示用）
      */
-    @SerializedName("displayName")
     private String displayName;
 
     /**
      * 金币价格
      */
-    @SerializedName("priceMoney")
     private double priceMoney;
 
     /**
      * 点券价格
      */
-    @SerializedName("pricePoints")
     private int pricePoints;
 
     /**
@@ -106,6 +93,12 @@ public class TitleData {
         this.category = "default";
     }
 
+    /**
+     * 供子类使用的构造方法：不初始化任何字段（字段由子类的 getter 提供）
+     */
+    protected TitleData(boolean uninitialized) {
+    }
+
     /**
      * 创建预设称号的快捷构造方法（静态）
      */
@@ -142,27 +135,23 @@ public class TitleData {
      * 序列化为 JSON 字符串
      */
     public String toJson() {
-        return GSON.toJson(this);
+        return TitleDataCodec.encode(this);
     }
 
     /**
      * 从 JSON 字符串解析
      */
     public static TitleData fromJson(String json) {
-        if (json == null || json.isEmpty()) {
-            return new TitleData();
-        }
-        TitleData data = GSON.fromJson(json, TitleData.class);
-        // 设置默认值
-        if (data.contents == null) data.contents = new ArrayList<>();
-        if (data.bracketLeft == null) data.bracketLeft = "[";
-        if (data.bracketRight == null) data.bracketRight = "]";
-        if (data.prefix == null) data.prefix = "";
-        if (data.suffix == null) data.suffix = "";
-        if (data.type == null) data.type = TitleType.CUSTOM;
-        if (data.displayName == null) data.displayName = "";
-        if (data.category == null) data.category = "default";
-        return data;
+        return TitleDataCodec.decode(json);
+    }
+
+    /**
+     * 称号数据是否可用
+     * 从数据库延迟加载的称号解码失败时返回 false，此时只能看到以称号ID显示的回退数据，
+     * 列表中不显示，也不能设为当前称号或修改
+     */
+    public boolean isUsable() {
+        return true;
     }
 
     // ==================== 动态称号相关 ====================
@@ -171,6 +160,7 @@ public class TitleData {
      * 是否为动态称号
      */
     public boolean isDynamic() {
+        List<String> contents = getContents();
         return contents != null && contents.size() > 1;
     }
 
@@ -178,6 +168,7 @@ public class TitleData {
      * 获取内容数量
      */
     public int getContentCount() {
+        List<String> contents = getContents();
         return contents == null ? 0 : contents.size();
     }
 
@@ -185,6 +176,7 @@ public class TitleData {
      * 获取指定索引的内容
      */
     public String getContent(int index) {
+        List<String> contents = getContents();
         if (contents == null || contents.isEmpty()) return "";
         return contents.get(Math.max(0, Math.min(index, contents.size() - 1)));
     }
@@ -211,7 +203,7 @@ public class TitleData {
      */
     public String getFormatted(int contentIndex) {
         String content = getContent(contentIndex);
-        return "&r" + bracketLeft + "&r" + prefix + content + suffix + "&r" + bracketRight + "&r";
+        return "&r" + getBracketLeft() + "&r" + getPrefix() + content + getSuffix() + "&r" + getBracketRight() + "&r";
     }
 
     /**
@@ -219,7 +211,7 @@ public class TitleData {
      * 格式：前缀 + 内容 + 后缀
      */
     public String getRaw() {
-        return prefix + getFirstContent() + suffix;
+        return getPrefix() + getFirstContent() + getSuffix();
     }
 
     // ==================== Getters & Setters ====================
@@ -273,12 +265,27 @@ public class TitleData {
     }
 
     public String getDisplayName() {
-        if (displayName != null && !displayName.isEmpty()) {
+        String displayName = getRawDisplayName();
+        if (!displayName.isEmpty()) {
             return displayName;
         }
         return getFirstContent();
     }
 
+    /**
+     * 获取设置的显示名称（未设置时为空字符串，不回退到内容）
+     */
+    public String getRawDisplayName() {
+        return displayName != null ? displayName : "";
+    }
+
+    /**
+     * 获取显示名称字段本身（未设置时可能为 null），TitleDataCodec 据此省略 null 字段
+     */
+    protected String getDisplayNameOrNull() {
+        return displayName;
+    }
+
     public void setDisplayName(String displayName) {
         this.displayName = displayName;
     }
@@ -327,20 +334,21 @@ public class TitleData {
      * 检查是否需要金币购买
      */
     public boolean requiresMoney() {
-        return priceMoney > 0;
+        return getPriceMoney() > 0;
     }
 
     /**
      * 检查是否需要点券购买
      */
     public boolean requiresPoints() {
-        return pricePoints > 0;
+        return getPricePoints() > 0;
     }
 
     /**
      * 检查是否需要权限
      */
     public boolean requiresPermission() {
+        String permission = getPermission();
         return permission != null && !permission.isEmpty();
     }
 
@@ -367,12 +375,12 @@ public class TitleData {
     @Override
     public String toString() {
         return "TitleData{" +
-                "contents=" + contents +
-                ", bracketLeft='" + bracketLeft + '\'' +
-                ", bracketRight='" + bracketRight + '\'' +
-                ", prefix='" + prefix + '\'' +
-                ", suffix='" + suffix + '\'' +
-                ", type=" + type +
+                "contents=" + getContents() +
+                ", bracketLeft='" + getBracketLeft() + '\'' +
+                ", bracketRight='" + getBracketRight() + '\'' +
+                ", prefix='" + getPrefix() + '\'' +
+                ", suffix='" + getSuffix() + '\'' +
+                ", type=" + getType() +
                 '}';
     }
 }
@@ -0,0 +1,189 @@
+package dev.user.title.model;
+
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TitleData 的 JSON 编解码
+ * 基于 JsonReader / JsonWriter 逐字段读写，不经过 Gson 反射，也不创建中间对象。
+ * 格式与原来 Gson 生成的 JSON 完全一致（字段名、顺序、null 字段省略、不转义 HTML），
+ * 已保存的数据无需转换：
+ * {"contents":[...],"bracketLeft":"[","bracketRight":"]","prefix":"","suffix":"","type":"PRESET",
+ *  "displayName":"","priceMoney":0.0,"pricePoints":0,"permission":"...","slot":0,"category":"default"}
+ */
+public final class TitleDataCodec {
+
+    private static final TitleType[] TYPES = TitleType.values();
+
+    private TitleDataCodec() {
+    }
+
+    /**
+     * 序列化为 JSON 字符串（通过 getter 读取字段，预设称号视图同样适用）
+     */
+    public static String encode(TitleData data) {
+        StringWriter out = new StringWriter(128);
+        try (JsonWriter writer = new JsonWriter(out)) {
+            writer.setHtmlSafe(false);
+            writer.beginObject();
+            List<String> contents = data.getContents();
+            if (contents != null) {
+                writer.name("contents").beginArray();
+                for (String content : contents) {
+                    writer.value(content);
+                }
+                writer.endArray();
+            }
+            writeString(writer, "bracketLeft", data.getBracketLeft());
+            writeString(writer, "bracketRight", data.getBracketRight());
+            writeString(writer, "prefix", data.getPrefix());
+            writeString(writer, "suffix", data.getSuffix());
+            TitleType type = data.getType();
+            if (type != null) {
+                writer.name("type").value(type.name());
+            }
+            writeString(writer, "displayName", data.getDisplayNameOrNull());
+            writer.name("priceMoney").value(data.getPriceMoney());
+            writer.name("pricePoints").value(data.getPricePoints());
+            writeString(writer, "permission", data.getPermission());
+            writer.name("slot").value(data.getSlot());
+            writeString(writer, "category", data.getCategory());
+            writer.endObject();
+        } catch (IOException e) {
+            // StringWriter 不会抛出 IOException
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * 从 JSON 字符串解析，缺失或为 null 的字段使用默认值
+     * 未知字段忽略；格式错误时抛出 IllegalStateException / NumberFormatException
+     */
+    public static TitleData decode(String json) {
+        if (json == null || json.isEmpty()) {
+            return new TitleData();
+        }
+
+        List<String> contents = null;
+        String bracketLeft = null;
+        String bracketRight = null;
+        String prefix = null;
+        String suffix = null;
+        TitleType type = null;
+        String displayName = null;
+        double priceMoney = 0;
+        int pricePoints = 0;
+        String permission = null;
+        int slot = 0;
+        String category = null;
+
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            // 与 Gson.fromJson 一致：文档内容宽松解析，之后不允许有多余内容
+            reader.setStrictness(Strictness.LENIENT);
+            if (reader.peek() == JsonToken.NULL) {
+                return new TitleData();
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (reader.peek() == JsonToken.NULL) {
+                    // null 值：对象字段为 null（之后取默认值），数值字段保持不变
+                    reader.nextNull();
+                    switch (name) {
+                        case "contents" -> contents = null;
+                        case "bracketLeft" -> bracketLeft = null;
+                        case "bracketRight" -> bracketRight = null;
+                        case "prefix" -> prefix = null;
+                        case "suffix" -> suffix = null;
+                        case "type" -> type = null;
+                        case "displayName" -> displayName = null;
+                        case "permission" -> permission = null;
+                        case "category" -> category = null;
+                        default -> {
+                        }
+                    }
+                    continue;
+                }
+                switch (name) {
+                    case "contents" -> contents = readContents(reader);
+                    case "bracketLeft" -> bracketLeft = reader.nextString();
+                    case "bracketRight" -> bracketRight = reader.nextString();
+                    case "prefix" -> prefix = reader.nextString();
+                    case "suffix" -> suffix = reader.nextString();
+                    case "type" -> type = parseType(reader.nextString());
+                    case "displayName" -> displayName = reader.nextString();
+                    case "priceMoney" -> priceMoney = reader.nextDouble();
+                    case "pricePoints" -> pricePoints = reader.nextInt();
+                    case "permission" -> permission = reader.nextString();
+                    case "slot" -> slot = reader.nextInt();
+                    case "category" -> category = reader.nextString();
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+            reader.setStrictness(Strictness.LEGACY_STRICT);
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new IllegalStateException("称号数据格式错误: JSON 之后还有多余内容");
+            }
+        } catch (IOException e) {
+            // 包含 MalformedJsonException
+            throw new IllegalStateException("称号数据格式错误: " + e.getMessage(), e);
+        }
+
+        TitleData data = new TitleData(true);
+        data.setContents(contents != null ? contents : new ArrayList<>());
+        data.setBracketLeft(bracketLeft != null ? bracketLeft : "[");
+        data.setBracketRight(bracketRight != null ? bracketRight : "]");
+        data.setPrefix(prefix != null ? prefix : "");
+        data.setSuffix(suffix != null ? suffix : "");
+        data.setType(type != null ? type : TitleType.CUSTOM);
+        data.setDisplayName(displayName != null ? displayName : "");
+        data.setPriceMoney(priceMoney);
+        data.setPricePoints(pricePoints);
+        data.setPermission(permission);
+        data.setSlot(slot);
+        data.setCategory(category != null ? category : "default");
+        return data;
+    }
+
+    private static List<String> readContents(JsonReader reader) throws IOException {
+        List<String> contents = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                contents.add(null);
+            } else {
+                contents.add(reader.nextString());
+            }
+        }
+        reader.endArray();
+        return contents;
+    }
+
+    private static TitleType parseType(String name) {
+        // 未知类型按 null 处理（之后取默认值），与 Gson 的枚举解析一致
+        for (TitleType type : TYPES) {
+            if (type.name().equals(name)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    private static void writeString(JsonWriter writer, String name, String value) throws IOException {
+        if (value != null) {
+            writer.name(name).value(value);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package dev.user.title.placeholder;
+
+import dev.user.title.SimpleTitlePlugin;
+import dev.user.title.config.ConfigManager;
+import dev.user.title.manager.TitleCacheManager;
+import dev.user.title.model.PlayerTitleState;
+import dev.user.title.model.TitleData;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 称号渲染缓存
+ * 预先拼接好每个玩家各个占位符变体的最终字符串（动态称号按帧预渲染），
+ * 只有在玩家称号、边框或配置变化时才失效重建（离线玩家的数据被淘汰时一并移除）
+ */
+public class TitleRenderCache {
+
+    private final SimpleTitlePlugin plugin;
+
+    // 渲染结果缓存: playerUuid -> RenderedTitle
+    private final Map<UUID, RenderedTitle> renders = new ConcurrentHashMap<>();
+
+    public TitleRenderCache(SimpleTitlePlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * 获取玩家的渲染结果
+     * 数据尚未加载时触发异步加载并返回空结果（不缓存）
+     */
+    public RenderedTitle get(UUID playerUuid) {
+        // 先确认数据仍在缓存中（离线玩家的数据可能已过期或被淘汰，同时刷新其访问顺序）
+        TitleCacheManager cacheManager = plugin.getTitleCacheManager();
+        if (!cacheManager.isLoaded(playerUuid)) {
+            cacheManager.loadPlayerTitles(playerUuid);
+            return RenderedTitle.EMPTY;
+        }
+
+        RenderedTitle rendered = renders.get(playerUuid);
+        if (rendered != null) {
+            return rendered;
+        }
+
+        // computeIfAbsent 保证与 invalidate 之间不会丢失失效
+        rendered = renders.computeIfAbsent(playerUuid, this::render);
+        return rendered != null ? rendered : RenderedTitle.EMPTY;
+    }
+
+    /**
+     * 使玩家的渲染结果失效（称号、边框变化时调用）
+     */
+    public void invalidate(UUID playerUuid) {
+        renders.remove(playerUuid);
+    }
+
+    /**
+     * 清空所有渲染结果（配置重载时调用）
+     */
+    public void clear() {
+        renders.clear();
+    }
+
+    private RenderedTitle render(UUID playerUuid) {
+        // 基于同一个状态快照渲染，保证各变体之间一致
+        PlayerTitleState state = plugin.getTitleCacheManager().getState(playerUuid);
+        if (state == null) {
+            return null;
+        }
+
+        int titleCount = state.getCount();
+        String count = String.valueOf(titleCount);
+        String hasTitle = titleCount > 0 ? "yes" : "no";
+
+        String titleId = state.getCurrentTitleId();
+        TitleData titleData = state.getCurrentTitle();
+        if (titleData == null) {
+            return new RenderedTitle(null, new String[]{""}, new String[]{""}, "", "", "", "", "", "",
+                    count, hasTitle, "no");
+        }
+
+        ConfigManager config = plugin.getConfigManager();
+        String paddingLeft = config.getTitlePaddingLeft();
+        String paddingRight = config.getTitlePaddingRight();
+
+        // 按帧预渲染：静态称号只有一帧
+        int frameCount = titleData.isDynamic() ? titleData.getContentCount() : 1;
+        String[] formatted = new String[frameCount];
+        String[] contents = new String[frameCount];
+        for (int i = 0; i < frameCount; i++) {
+            String content = titleData.getContent(i);
+            contents[i] = content;
+            formatted[i] = paddingLeft + "&r" + titleData.getBracketLeft() + "&r" + titleData.getPrefix() +
+                    content + titleData.getSuffix() + "&r" + titleData.getBracketRight() + "&r" + paddingRight;
+        }
+
+        return new RenderedTitle(titleId, formatted, contents,
+                titleData.getRaw(),
+                titleData.getBracketLeft() + titleData.getBracketRight(),
+                titleData.getBracketLeft(),
+                titleData.getBracketRight(),
+                titleData.getPrefix(),
+                titleData.getSuffix(),
+                count, hasTitle,
+                titleData.isDynamic() ? "yes" : "no");
+    }
+
+    /**
+     * 单个玩家的预渲染结果（不可变）
+     */
+    public static final class RenderedTitle {
+
+        static final RenderedTitle EMPTY = new RenderedTitle(null, new String[]{""}, new String[]{""},
+                "", "", "", "", "", "", "0", "no", "no");
+
+        private final String titleId;
+        private final String[] formatted;
+        private final String[] contents;
+        private final String raw;
+        private final String brackets;
+        private final String bracketLeft;
+        private final String bracketRight;
+        private final String prefix;
+        private final String suffix;
+        private final String count;
+        private final String hasTitle;
+        private final String isDynamic;
+
+        RenderedTitle(String titleId, String[] formatted, String[] contents, String raw, String brackets,
+                      String bracketLeft, String bracketRight, String prefix, String suffix,
+                      String count, String hasTitle, String isDynamic) {
+            this.titleId = titleId;
+            this.formatted = formatted;
+            this.contents = contents;
+            this.raw = raw;
+            this.brackets = brackets;
+            this.bracketLeft = bracketLeft;
+            this.bracketRight = bracketRight;
+            this.prefix = prefix;
+            this.suffix = suffix;
+            this.count = count;
+            this.hasTitle = hasTitle;
+            this.isDynamic = isDynamic;
+        }
+
+        public String getTitleId() { return titleId; }
+        public int getFrameCount() { return formatted.length; }
+        public boolean isDynamicTitle() { return formatted.length > 1; }
+        public String getFormatted(int frame) { return formatted[frame]; }
+        public String getContent(int frame) { return contents[frame]; }
+        public String getRaw() { return raw; }
+        public String getBrackets() { return brackets; }
+        public String getBracketLeft() { return bracketLeft; }
+        public String getBracketRight() { return bracketRight; }
+        public String getPrefix() { return prefix; }
+        public String getSuffix() { return suffix; }
+        public String getCount() { return count; }
+        public String getHasTitle() { return hasTitle; }
+        public String getIsDynamic() { return isDynamic; }
+    }
+}
@@ -0,0 +1,162 @@
+package dev.user.title.util;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * 异步回调分发器
+ * 数据库、经济等工作线程完成的回调先放入无锁队列，由一个每 tick 执行一次的全局任务统一取出：
+ * 与玩家无关的回调直接在全局区域线程执行；属于某个玩家的回调按玩家合并，
+ * 每个玩家每 tick 只提交一次实体调度任务，在真正拥有该玩家的区域线程上执行。
+ * 突发的大量完成不再对应同样数量的调度器任务
+ */
+public class CallbackDispatcher {
+
+    private final Plugin plugin;
+
+    // 待执行的回调（工作线程写入，全局区域线程取出）
+    private final Queue<Completion> completions = new ConcurrentLinkedQueue<>();
+
+    // 每 tick 执行的取出任务
+    private volatile ScheduledTask drainTask;
+
+    public CallbackDispatcher(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * 启动每 tick 的取出任务
+     */
+    public void start() {
+        if (drainTask != null) {
+            return;
+        }
+        drainTask = plugin.getServer().getGlobalRegionScheduler().runAtFixedRate(plugin, task -> drain(), 1L, 1L);
+    }
+
+    /**
+     * 停止取出任务并立即执行剩余回调
+     */
+    public void shutdown() {
+        ScheduledTask task = drainTask;
+        drainTask = null;
+        if (task != null) {
+            task.cancel();
+        }
+        // 插件关闭时调度器不再执行新任务，剩余回调在当前线程执行
+        Completion completion;
+        while ((completion = completions.poll()) != null) {
+            run(completion.task);
+        }
+    }
+
+    /**
+     * 在全局区域线程执行回调
+     */
+    public void dispatch(Runnable task) {
+        dispatch(null, task);
+    }
+
+    /**
+     * 在玩家所在区域线程执行回调；玩家不在线或 playerUuid 为 null 时在全局区域线程执行
+     */
+    public void dispatch(UUID playerUuid, Runnable task) {
+        if (drainTask == null) {
+            // 未启动或已关闭：退回到逐个提交
+            plugin.getServer().getGlobalRegionScheduler().execute(plugin, () -> run(task));
+            return;
+        }
+        completions.offer(new Completion(playerUuid, task));
+    }
+
+    /**
+     * 全局区域线程的 Executor，供 CompletableFuture 的 *Async 方法使用
+     */
+    public Executor global() {
+        return this::dispatch;
+    }
+
+    /**
+     * 玩家所在区域线程的 Executor，供 CompletableFuture 的 *Async 方法使用
+     */
+    public Executor player(UUID playerUuid) {
+        return task -> dispatch(playerUuid, task);
+    }
+
+    /**
+     * 取出本 tick 之前提交的所有回调（在全局区域线程执行）
+     */
+    private void drain() {
+        if (completions.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, List<Runnable>> byPlayer = null;
+        Completion completion;
+        while ((completion = completions.poll()) != null) {
+            if (completion.playerUuid == null) {
+                run(completion.task);
+                continue;
+            }
+            if (byPlayer == null) {
+                byPlayer = new LinkedHashMap<>();
+            }
+            byPlayer.computeIfAbsent(completion.playerUuid, uuid -> new ArrayList<>()).add(completion.task);
+        }
+
+        if (byPlayer == null) {
+            return;
+        }
+        for (Map.Entry<UUID, List<Runnable>> entry : byPlayer.entrySet()) {
+            List<Runnable> tasks = entry.getValue();
+            Player player = plugin.getServer().getPlayer(entry.getKey());
+            if (player == null) {
+                // 玩家已离线，回调只涉及缓存和数据，直接在全局区域线程执行
+                runAll(tasks);
+                continue;
+            }
+            boolean scheduled = player.getScheduler().execute(plugin, () -> runAll(tasks),
+                    () -> plugin.getServer().getGlobalRegionScheduler().execute(plugin, () -> runAll(tasks)), 0L);
+            if (!scheduled) {
+                runAll(tasks);
+            }
+        }
+    }
+
+    private void runAll(List<Runnable> tasks) {
+        for (Runnable task : tasks) {
+            run(task);
+        }
+    }
+
+    private void run(Runnable task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            plugin.getLogger().warning("异步回调执行失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 一个待执行的回调
+     */
+    private static final class Completion {
+        private final UUID playerUuid;
+        private final Runnable task;
+
+        Completion(UUID playerUuid, Runnable task) {
+            this.playerUuid = playerUuid;
+            this.task = task;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package dev.user.title.util;
 
 import dev.user.title.SimpleTitlePlugin;
 import dev.user.title.config.ConfigManager;
+import dev.user.title.database.TitleRepository;
 import dev.user.title.model.TitleData;
 import dev.user.title.model.TitleType;
 import org.bukkit.Bukkit;
@@ -23,6 +24,9 @@ import java.util.function.Consumer;
  */
 public class CsvImporter {
 
+    // 每个批量写入任务包含的称号行数
+    private static final int IMPORT_BATCH_SIZE = 500;
+
     private final SimpleTitlePlugin plugin;
 
     public CsvImporter(SimpleTitlePlugin plugin) {
@@ -152,25 +156,32 @@ public class CsvImporter {
             }
         }
 
-        // 批量写入数据库
+        // 批量写入数据库（按批提交为 BULK 任务，导入期间不影响玩家操作）
         int success = 0;
         int skipped = 0;
 
+        Map<UUID, List<TitleRepository.PlayerTitleEntry>> batch = new HashMap<>();
+        int batchRows = 0;
         for (Map.Entry<UUID, PlayerImportData> entry : playerDataMap.entrySet()) {
-            UUID playerUuid = entry.getKey();
-            PlayerImportData playerData = entry.getValue();
-
-            for (TitleImportData titleData : playerData.titles) {
-                // 直接添加到数据库，UNIQUE 约束会自动处理重复
-                plugin.getTitleRepository().addPlayerTitle(playerUuid, titleData.titleId, titleData.titleData, null);
-
-                // 如果是当前使用的，设置 on_use
-                if (titleData.isUse) {
-                    plugin.getTitleRepository().setCurrentTitle(playerUuid, titleData.titleId, null);
-                }
-
+            List<TitleRepository.PlayerTitleEntry> titles = new ArrayList<>(entry.getValue().titles.size());
+            for (TitleImportData titleData : entry.getValue().titles) {
+                titles.add(new TitleRepository.PlayerTitleEntry(titleData.titleId, titleData.titleData,
+                        titleData.isUse, 0L));
                 success++;
             }
+            batch.put(entry.getKey(), titles);
+            batchRows += titles.size();
+            // 导入直接写入数据库，不再视为无称号
+            plugin.getTitleCacheManager().invalidateEmpty(entry.getKey());
+
+            if (batchRows >= IMPORT_BATCH_SIZE) {
+                plugin.getTitleRepository().importPlayerTitles(batch, null);
+                batch = new HashMap<>();
+                batchRows = 0;
+            }
+        }
+        if (!batch.isEmpty()) {
+            plugin.getTitleRepository().importPlayerTitles(batch, null);
         }
 
         return new ImportResult(total, success, skipped, errors);
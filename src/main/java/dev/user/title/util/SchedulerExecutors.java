@@ -0,0 +1,37 @@
+package dev.user.title.util;
+
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Folia 调度器的 Executor 适配
+ * 配合 CompletableFuture 的 *Async 方法使用，由调用方决定后续逻辑在哪个线程继续
+ */
+public final class SchedulerExecutors {
+
+    private SchedulerExecutors() {
+    }
+
+    /**
+     * 全局区域线程
+     */
+    public static Executor global(Plugin plugin) {
+        return task -> plugin.getServer().getGlobalRegionScheduler().execute(plugin, task);
+    }
+
+    /**
+     * 实体所在区域的线程（实体已移除时任务被丢弃）
+     */
+    public static Executor entity(Plugin plugin, Entity entity) {
+        return task -> entity.getScheduler().execute(plugin, task, null, 0L);
+    }
+
+    /**
+     * 异步线程池
+     */
+    public static Executor async(Plugin plugin) {
+        return task -> plugin.getServer().getAsyncScheduler().runNow(plugin, scheduled -> task.run());
+    }
+}